@@ -37,6 +37,7 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation(libs.room.runtime)
     annotationProcessor(libs.room.compiler)
     implementation(libs.appcompat)
@@ -9,7 +9,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.junit.Assert.*;
-import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ContentReaders;
 import com.example.stockcheck.model.Tyre;
 import java.util.ArrayList;
 
@@ -39,7 +39,7 @@ public class CSVParsingInstrumentedTests {
                     .appendPath("test_csv_with_categories")
                     .build();
             try {
-                categoriesTyreList = CSVReader.Read(categoriesUri, context);
+                categoriesTyreList = ContentReaders.ReadCSV(categoriesUri, context);
             } catch (Exception ignored) {}
             // Parse csv without categories
             Uri noCategoriesUri = new Uri.Builder()
@@ -49,7 +49,7 @@ public class CSVParsingInstrumentedTests {
                     .appendPath("test_csv_without_categories")
                     .build();
             try {
-                noCategoriesTyreList = CSVReader.Read(noCategoriesUri, context);
+                noCategoriesTyreList = ContentReaders.ReadCSV(noCategoriesUri, context);
             } catch (Exception ignored) {}
 
             // Get individual Tyres with categories
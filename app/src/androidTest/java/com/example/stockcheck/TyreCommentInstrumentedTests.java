@@ -6,6 +6,8 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.junit.Assert.*;
+import com.example.stockcheck.model.CommentMarkup;
+import com.example.stockcheck.model.ResourceCommentMarkup;
 import com.example.stockcheck.model.TyreComment;
 import java.util.Arrays;
 
@@ -16,6 +18,7 @@ public class TyreCommentInstrumentedTests {
     final String iEnd = context.getString(R.string.inserted_end);
     final String dStart = context.getString(R.string.deleted_start, context.getString(R.color.char_deleted));
     final String dEnd = context.getString(R.string.deleted_end);
+    final CommentMarkup markup = ResourceCommentMarkup.From(context);
 
     @Test
     public void Comment_Raw_Matches() {
@@ -33,42 +36,42 @@ public class TyreCommentInstrumentedTests {
     public void Comment_Add_1() {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("abcde");
-        assertEquals("abcd" + iStart + "e" + iEnd, comment.GetString(false, context));
+        assertEquals("abcd" + iStart + "e" + iEnd, comment.GetString(false, markup));
     }
 
     @Test
     public void Comment_Add_Multiple() {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("abcdefg");
-        assertEquals("abcd" + iStart + "efg" + iEnd, comment.GetString(false, context));
+        assertEquals("abcd" + iStart + "efg" + iEnd, comment.GetString(false, markup));
     }
 
     @Test
     public void Comment_Remove_1() {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("abc");
-        assertEquals("abc" + dStart + "d" + dEnd, comment.GetString(false, context));
+        assertEquals("abc" + dStart + "d" + dEnd, comment.GetString(false, markup));
     }
 
     @Test
     public void Comment_Remove_Multiple() {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("a");
-        assertEquals("a" + dStart + "bcd" + dEnd, comment.GetString(false, context));
+        assertEquals("a" + dStart + "bcd" + dEnd, comment.GetString(false, markup));
     }
 
     @Test
     public void Comment_Remove_All() {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("");
-        assertEquals(dStart + "abcd" + dEnd, comment.GetString(false, context));
+        assertEquals(dStart + "abcd" + dEnd, comment.GetString(false, markup));
     }
 
     @Test
     public void Comment_Remove_All_Spaces() {
         TyreComment comment = new TyreComment("a b  cd ");
         comment.Edit("");
-        assertEquals(dStart + "a b  cd " + dEnd, comment.GetString(false, context));
+        assertEquals(dStart + "a b  cd " + dEnd, comment.GetString(false, markup));
     }
 
     @Test
@@ -76,7 +79,7 @@ public class TyreCommentInstrumentedTests {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("abcdefg");
         comment.Edit("abcd");
-        assertEquals("abcd", comment.GetString(false, context));
+        assertEquals("abcd", comment.GetString(false, markup));
     }
 
     @Test
@@ -84,7 +87,7 @@ public class TyreCommentInstrumentedTests {
         TyreComment comment = new TyreComment("ab c  d ");
         comment.Edit("ab c  d e fg  ");
         comment.Edit("ab c  d ");
-        assertEquals("ab c  d ", comment.GetString(false, context));
+        assertEquals("ab c  d ", comment.GetString(false, markup));
     }
 
     @Test
@@ -92,7 +95,7 @@ public class TyreCommentInstrumentedTests {
         TyreComment comment = new TyreComment("abcd");
         comment.Edit("abcdefg");
         comment.Edit("abc");
-        assertEquals("abc" + dStart + "d" + dEnd, comment.GetString(false, context));
+        assertEquals("abc" + dStart + "d" + dEnd, comment.GetString(false, markup));
     }
 
     @Test
@@ -100,7 +103,7 @@ public class TyreCommentInstrumentedTests {
         TyreComment comment = new TyreComment("ab c  d ");
         comment.Edit("ab c  d e fg  ");
         comment.Edit("ab c ");
-        assertEquals("ab c " + dStart + " d " + dEnd, comment.GetString(false, context));
+        assertEquals("ab c " + dStart + " d " + dEnd, comment.GetString(false, markup));
     }
 
     @Test
@@ -109,7 +112,7 @@ public class TyreCommentInstrumentedTests {
         comment.Edit("abcd");
         comment.Edit("abcdxyz");
         String[] acceptedResults = {"abcd" + dStart + "efg" + dEnd + iStart + "xyz" + iEnd, "abcd" + iStart + "xyz" + iEnd + dStart + "efg" + dEnd};
-        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, context)));
+        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, markup)));
     }
 
     @Test
@@ -118,7 +121,7 @@ public class TyreCommentInstrumentedTests {
         comment.Edit("abc d");
         comment.Edit("abc dxy z");
         String[] acceptedResults = {"abc d" + dStart + "e fg  " + dEnd + iStart + "xy z" + iEnd, "abc d" + iStart + "xy z" + iEnd + dStart + "e fg  " + dEnd};
-        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, context)));
+        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, markup)));
     }
 
     @Test
@@ -127,7 +130,7 @@ public class TyreCommentInstrumentedTests {
         comment.Edit("abcd");
         comment.Edit("abcdefg");
         String[] acceptedResults = {"abcd" + dStart + "efg" + dEnd + iStart + "efg" + iEnd, "abcd" + iStart + "efg" + iEnd + dStart + "efg" + dEnd};
-        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, context)));
+        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, markup)));
     }
 
     @Test
@@ -136,7 +139,7 @@ public class TyreCommentInstrumentedTests {
         comment.Edit("");
         comment.Edit("efgh");
         String[] acceptedResults = {dStart + "abcd" + dEnd + iStart + "efgh" + iEnd, iStart + "efgh" + iEnd + dStart + "abcd" + dEnd};
-        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, context)));
+        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, markup)));
     }
 
     @Test
@@ -145,6 +148,6 @@ public class TyreCommentInstrumentedTests {
         comment.Edit("");
         comment.Edit(" efg h ");
         String[] acceptedResults = {dStart + " ab cd  " + dEnd + iStart + " efg h " + iEnd, iStart + " efg h " + iEnd + dStart + " ab cd  " + dEnd};
-        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, context)));
+        assertTrue(Arrays.asList(acceptedResults).contains(comment.GetString(false, markup)));
     }
 }
\ No newline at end of file
@@ -9,7 +9,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import static org.junit.Assert.*;
-import com.example.stockcheck.filemanagement.XLSXReader;
+import com.example.stockcheck.filemanagement.ContentReaders;
 import com.example.stockcheck.model.Tyre;
 import java.util.ArrayList;
 
@@ -39,7 +39,7 @@ public class XLSXParsingInstrumentedTests {
                     .appendPath("test_xlsx_with_categories")
                     .build();
             try {
-                categoriesTyreList = XLSXReader.Read(categoriesUri, context);
+                categoriesTyreList = ContentReaders.ReadXLSX(categoriesUri, context);
             } catch (Exception ignored) {}
             // Parse XLSX without categories
             Uri noCategoriesUri = new Uri.Builder()
@@ -49,7 +49,7 @@ public class XLSXParsingInstrumentedTests {
                     .appendPath("test_xlsx_without_categories")
                     .build();
             try {
-                noCategoriesTyreList = XLSXReader.Read(noCategoriesUri, context);
+                noCategoriesTyreList = ContentReaders.ReadXLSX(noCategoriesUri, context);
             } catch (Exception ignored) {}
 
             // Get individual Tyres with categories
@@ -12,10 +12,15 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.stockcheck.databinding.ActivityMainBinding;
-import com.example.stockcheck.filemanagement.CSVReader;
-import com.example.stockcheck.filemanagement.XLSXReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportException;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.TyreFileReader;
+import com.example.stockcheck.filemanagement.TyreImporter;
 import com.example.stockcheck.model.Tyre;
 import com.example.stockcheck.model.TyreContainer;
+import com.example.stockcheck.model.TyreMerge;
 import com.example.stockcheck.storage.MetaData;
 import com.example.stockcheck.storage.StoredTyre;
 import com.example.stockcheck.storage.TyreDatabase;
@@ -29,6 +34,49 @@ public class MainActivity extends AppCompatActivity {
 
     private ActivityMainBinding binding;
     private String fileName;
+    private int importId = 0;
+    private boolean importFailed = false;
+    private boolean saveDataChecked = false;
+    private boolean tyreListStarted = false;
+    private boolean loadSaveDataWhenImported = false;
+    private ImportProgress importProgress;
+    /**
+     * Shows the import's progress until it finishes
+     */
+    private final Runnable progressUpdater = new Runnable() {
+        @Override
+        public void run() {
+            if (importProgress == null || importProgress.IsFinished()) {
+                binding.importPanel.setVisibility(View.GONE);
+                return;
+            }
+            binding.importProgressText.setText(TyreImporter.GetProgressText(MainActivity.this, importProgress));
+            binding.getRoot().postDelayed(this, 200);
+        }
+    };
+    /**
+     * Shows the tyre list once the first tyres are imported, and applies save data once all of them are
+     */
+    private final TyreContainer.Listener importListener = new TyreContainer.Listener() {
+        @Override
+        public void OnTyresAdded(int firstIndex, int count) {
+            // File name is cleared if the user went back before any tyres were shown
+            if (!saveDataChecked && fileName != null) CheckSaveData();
+        }
+
+        @Override
+        public void OnImportFinished() {
+            if (importFailed || fileName == null) return;
+            if (!saveDataChecked) CheckSaveData();
+            if (loadSaveDataWhenImported) {
+                loadSaveDataWhenImported = false;
+                LoadSaveData();
+            }
+        }
+
+        @Override
+        public void OnMergeFinished(TyreMerge.Result result) {}
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -42,9 +90,21 @@ public class MainActivity extends AppCompatActivity {
         getOnBackPressedDispatcher().addCallback(new OnBackPressedCallback(true) {
             @Override
             public void handleOnBackPressed() {
+                if (importProgress != null && !tyreListStarted) importProgress.Cancel();
                 fileName = null;
                 binding.savedVersionPanel.setVisibility(View.GONE);
                 binding.fileButton.setVisibility(View.VISIBLE);
+                loadSaveDataWhenImported = false;
+                binding.saveLoadButton.setEnabled(true);
+            }
+        });
+
+        TyreContainer.getInstance().AddListener(importListener);
+
+        binding.importCancelButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                if (importProgress != null) importProgress.Cancel();
             }
         });
 
@@ -59,41 +119,20 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onClick(View view) {
                 // Open file picker with file type restrictions
-                Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
-                intent.addCategory(Intent.CATEGORY_OPENABLE);
-                intent.setType("*/*");
-                String [] mimeTypes = {"text/csv", "text/comma-separated-values", "text/plain", "application/csv", "application/vnd.ms-excel", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"};
-                intent.putExtra(Intent.EXTRA_MIME_TYPES, mimeTypes);
-                fileSelectorLauncher.launch(intent);
+                fileSelectorLauncher.launch(TyreImporter.CreateFilePickerIntent());
             }
         });
 
         binding.saveLoadButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
-                // Update tyres with saved versions
-                ArrayList<Tyre> tyreList = TyreContainer.getInstance().GetTyreList();
-                TyreDatabase database = TyreDatabase.getDatabase(getApplicationContext());
-                TyreDatabase.databaseWriteExecutor.execute(() -> {
-                    List<StoredTyre> storedTyreList = database.storedTyreDao().Get();
-                    for (StoredTyre storedTyre : storedTyreList) {
-                        int id = storedTyre.id;
-                        boolean matched = false;
-                        for (Tyre tyre : tyreList) {
-                            if (tyre.GetId() == id) {
-                                tyre.FromStoredTyre(storedTyre);
-                                matched = true;
-                                break;
-                            }
-                        }
-                        if (!matched) {
-                            Tyre addedTyre = new Tyre(id, "", "", "", "", "", "", true);
-                            addedTyre.FromStoredTyre(storedTyre);
-                            tyreList.add(addedTyre);
-                        }
-                    }
-                    runOnUiThread(() -> { LoadTyreList(); });
-                });
+                // Saved versions can only be matched once every tyre in the file has been imported
+                if (TyreContainer.getInstance().IsImporting()) {
+                    loadSaveDataWhenImported = true;
+                    binding.saveLoadButton.setEnabled(false);
+                } else {
+                    LoadSaveData();
+                }
             }
         });
         binding.saveIgnoreButton.setOnClickListener(new View.OnClickListener() {
@@ -104,8 +143,16 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        TyreContainer.getInstance().RemoveListener(importListener);
+        binding.getRoot().removeCallbacks(progressUpdater);
+        super.onDestroy();
+    }
+
     /**
-     * Takes a file selector activity result, tries to parse the selected file, and starts the tyre list activity.
+     * Takes a file selector activity result, and starts importing the selected file in the background. The tyre list
+     * activity is started as soon as the first tyres are imported.
      * @param result The file selector activity result
      */
     private void FileSelected(androidx.activity.result.ActivityResult result) {
@@ -117,39 +164,45 @@ public class MainActivity extends AppCompatActivity {
                 fileUri = resultIntent.getData();
                 String fileType = TestableContentResolver.GetType(getApplicationContext(), fileUri);
                 String fileName = TestableContentResolver.GetName(getApplicationContext(), fileUri);
+                TyreFileReader reader = TyreImporter.ReaderFor(fileType);
 
-                // Parse file to get tyre list
-                ArrayList<Tyre> tyreList;
-                if (fileType.equals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")) {
-                    // Parse as .xlsx
-                    tyreList = XLSXReader.Read(fileUri, getApplicationContext());
-                } else if (fileType.equals("text/csv") || fileType.equals("text/comma-separated-values") || fileType.equals("text/plain") || fileType.equals("application/csv") || fileType.equals("application/vnd.ms-excel")) {
-                    // Parse as .csv
-                    tyreList = CSVReader.Read(fileUri, getApplicationContext());
-                } else {
-                    throw new Exception("Invalid file type selected");
-                }
+                // Keep only rows accepted by the configured filter, finding each field's column from the configured headers
+                ImportFilter filter = TyreImporter.LoadFilter(this);
+                ColumnSchema schema = TyreImporter.LoadColumnSchema(this);
 
-                // Put tyre list into singleton container for access by other activities
-                TyreContainer.getInstance().SetTyreList(tyreList);
+                // Tyres are put into the singleton container in batches, for access by other activities
+                int thisImportId = TyreContainer.getInstance().StartImport();
+                importId = thisImportId;
+                importFailed = false;
+                saveDataChecked = false;
+                tyreListStarted = false;
+                loadSaveDataWhenImported = false;
                 this.fileName = fileName;
+                binding.errorTextView.setText("");
+                binding.saveLoadButton.setEnabled(true);
                 binding.fileButton.setVisibility(View.GONE);
 
-                // Check database for save data
-                TyreDatabase database = TyreDatabase.getDatabase(getApplicationContext());
-                TyreDatabase.databaseWriteExecutor.execute(() -> {
-                    MetaData metaData = database.metaDataDao().Get();
-                    if (metaData != null && metaData.savedFilename.equals(fileName)) {
-                        // Save data exists for selected file, show option to load save data
-                        this.runOnUiThread(() -> {
-                            binding.timeDateText.setText(getString(R.string.brackets, metaData.savedTime));
-                            binding.savedVersionPanel.setVisibility(View.VISIBLE);
-                        });
-                    } else {
-                        // No save data, load tyre list activity
-                        LoadTyreList();
+                importProgress = TyreImporter.Start(fileUri, getApplicationContext(), reader, schema, filter, this::runOnUiThread, new TyreImporter.Callback() {
+                    @Override
+                    public void OnTyres(ArrayList<Tyre> batch) {
+                        TyreContainer.getInstance().AddTyres(thisImportId, batch);
+                    }
+
+                    @Override
+                    public void OnFinished() {
+                        TyreContainer.getInstance().FinishImport(thisImportId);
+                    }
+
+                    @Override
+                    public void OnFailed(ImportException e) {
+                        ImportFailed(thisImportId, e);
                     }
                 });
+                binding.importPanel.setVisibility(View.VISIBLE);
+                progressUpdater.run();
+            } catch (ImportException e) {
+                binding.errorTextView.setText(TyreImporter.GetErrorText(this, e));
+                System.out.println(e.toString());
             } catch (Exception e) {
                 // Could not read file
                 binding.errorTextView.setText(e.toString());
@@ -158,7 +211,74 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Shows why an import failed. If the tyre list was not shown yet, the file button is shown again, otherwise the
+     * tyre list shows the reason.
+     */
+    private void ImportFailed(int failedImportId, ImportException e) {
+        if (failedImportId != importId) return;
+        importFailed = true;
+        if (!tyreListStarted) {
+            binding.errorTextView.setText(TyreImporter.GetErrorText(this, e));
+            fileName = null;
+            binding.savedVersionPanel.setVisibility(View.GONE);
+            binding.fileButton.setVisibility(View.VISIBLE);
+        }
+        TyreContainer.getInstance().FinishImport(failedImportId, false);
+    }
+
+    /**
+     * Checks the database for save data of the selected file, then either offers to load it or shows the tyre list
+     */
+    private void CheckSaveData() {
+        saveDataChecked = true;
+        String fileName = this.fileName;
+        TyreDatabase database = TyreDatabase.getDatabase(getApplicationContext());
+        TyreDatabase.databaseWriteExecutor.execute(() -> {
+            MetaData metaData = database.metaDataDao().Get();
+            if (metaData != null && metaData.savedFilename.equals(fileName)) {
+                // Save data exists for selected file, show option to load save data
+                this.runOnUiThread(() -> {
+                    binding.timeDateText.setText(getString(R.string.brackets, metaData.savedTime));
+                    binding.savedVersionPanel.setVisibility(View.VISIBLE);
+                });
+            } else {
+                // No save data, load tyre list activity
+                runOnUiThread(this::LoadTyreList);
+            }
+        });
+    }
+
+    /**
+     * Updates tyres with their saved versions, then shows the tyre list
+     */
+    private void LoadSaveData() {
+        ArrayList<Tyre> tyreList = TyreContainer.getInstance().GetTyreList();
+        TyreDatabase database = TyreDatabase.getDatabase(getApplicationContext());
+        TyreDatabase.databaseWriteExecutor.execute(() -> {
+            List<StoredTyre> storedTyreList = database.storedTyreDao().Get();
+            for (StoredTyre storedTyre : storedTyreList) {
+                int id = storedTyre.id;
+                boolean matched = false;
+                for (Tyre tyre : tyreList) {
+                    if (tyre.GetId() == id) {
+                        storedTyre.ApplyTo(tyre);
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    Tyre addedTyre = new Tyre(id, "", "", "", "", "", "", true);
+                    storedTyre.ApplyTo(addedTyre);
+                    tyreList.add(addedTyre);
+                }
+            }
+            runOnUiThread(() -> { LoadTyreList(); });
+        });
+    }
+
     private void LoadTyreList() {
+        tyreListStarted = true;
         Intent tyreListIntent = new Intent(MainActivity.this,TyreListActivity.class);
         tyreListIntent.putExtra("filename", fileName);
         startActivity(tyreListIntent);
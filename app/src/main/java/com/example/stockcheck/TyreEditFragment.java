@@ -35,7 +35,7 @@ public class TyreEditFragment extends Fragment {
     public static TyreEditFragment newInstance(Tyre tyre) {
         TyreEditFragment fragment = new TyreEditFragment();
         Bundle args = new Bundle();
-        args.putParcelable("Tyre", tyre);
+        args.putSerializable("Tyre", tyre);
         fragment.setArguments(args);
         return fragment;
     }
@@ -44,7 +44,7 @@ public class TyreEditFragment extends Fragment {
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         if (getArguments() != null) {
-            tyre = getArguments().getParcelable("Tyre");
+            tyre = (Tyre) getArguments().getSerializable("Tyre");
         }
     }
 
@@ -62,7 +62,7 @@ public class TyreEditFragment extends Fragment {
         TextView partText = (TextView) view.findViewById(R.id.partText);
         partText.setText(tyre.GetPart(true, null));
         TextView supplierPartCodeText = (TextView) view.findViewById(R.id.supplierPartCodeText);
-        supplierPartCodeText.setText(tyre.GetSupplierPartCode(true, getContext()));
+        supplierPartCodeText.setText(tyre.GetSupplierPartCode(true, null));
         TextView descriptionText = (TextView) view.findViewById(R.id.descriptionText);
         descriptionText.setText(tyre.GetDescription(true, null));
         TextView locationText = (TextView) view.findViewById(R.id.locationText);
@@ -109,18 +109,19 @@ public class TyreEditFragment extends Fragment {
         }
         @Override
         public void onTextChanged(CharSequence s, int start, int before, int count) {
+            // Tracked fields are given the exact change, so typing doesn't copy or compare the whole text
             switch (id) {
                 case 0:
-                    tyre.EditPart(s.toString());
+                    tyre.EditPart(s, start, before, count);
                     break;
                 case 1:
-                    tyre.EditSupplierPartCode(s.toString());
+                    tyre.EditSupplierPartCode(s, start, before, count);
                     break;
                 case 2:
-                    tyre.EditDescription(s.toString());
+                    tyre.EditDescription(s, start, before, count);
                     break;
                 case 3:
-                    tyre.EditLocation(s.toString());
+                    tyre.EditLocation(s, start, before, count);
                     break;
                 case 4:
                     tyre.EditSeen(s.toString());
@@ -6,12 +6,12 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
-import android.text.Html;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import com.example.stockcheck.model.SpannedCommentRenderer;
 import com.example.stockcheck.model.Tyre;
 
 /**
@@ -53,7 +53,7 @@ public class TyreFragment extends Fragment {
     public static TyreFragment newInstance(Tyre tyre, boolean startSelected, Widths widths) {
         TyreFragment fragment = new TyreFragment();
         Bundle args = new Bundle();
-        args.putParcelable("Tyre", tyre);
+        args.putSerializable("Tyre", tyre);
         args.putBoolean("startSelected", startSelected);
         args.putInt("pWidth", widths.pWidth);
         args.putInt("dWidth", widths.dWidth);
@@ -93,7 +93,7 @@ public class TyreFragment extends Fragment {
     public void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         if (getArguments() != null) {
-            tyre = getArguments().getParcelable("Tyre");
+            tyre = (Tyre) getArguments().getSerializable("Tyre");
             startSelected = getArguments().getBoolean("startSelected");
             if (getArguments().getInt("pWidth") != 0) {
                 initialWidths = new Widths(
@@ -177,25 +177,26 @@ public class TyreFragment extends Fragment {
     }
 
     /**
-     * Updates all displayed text.
+     * Updates all displayed text. Edited fields are shown as styled text cached by each field until it is edited.
      */
     public void UpdateText() {
         try {
             View view = getView();
+            SpannedCommentRenderer renderer = SpannedCommentRenderer.From(getContext());
             TextView partText = (TextView) view.findViewById(R.id.partText);
-            partText.setText(Html.fromHtml(tyre.GetPart(false, getContext()), Html.FROM_HTML_MODE_COMPACT));
+            partText.setText(tyre.GetPartComment().GetRendered(renderer));
             TextView supplierPartCodeText = (TextView) view.findViewById(R.id.supplierPartCodeText);
-            supplierPartCodeText.setText(Html.fromHtml(tyre.GetSupplierPartCode(false, getContext()), Html.FROM_HTML_MODE_COMPACT));
+            supplierPartCodeText.setText(tyre.GetSupplierPartCodeComment().GetRendered(renderer));
             TextView descriptionText = (TextView) view.findViewById(R.id.descriptionText);
-            descriptionText.setText(Html.fromHtml(tyre.GetDescription(false, getContext()), Html.FROM_HTML_MODE_COMPACT));
+            descriptionText.setText(tyre.GetDescriptionComment().GetRendered(renderer));
             TextView locationText = (TextView) view.findViewById(R.id.locationText);
-            locationText.setText(Html.fromHtml(tyre.GetLocation(false, getContext()), Html.FROM_HTML_MODE_COMPACT));
+            locationText.setText(tyre.GetLocationComment().GetRendered(renderer));
             TextView stockText = (TextView) view.findViewById(R.id.stockText);
             stockText.setText(tyre.GetStock());
             TextView seenText = (TextView) view.findViewById(R.id.seenText);
             seenText.setText(tyre.GetSeen());
             TextView lastSoldDateText = (TextView) view.findViewById(R.id.lastSoldDateText);
-            lastSoldDateText.setText(Html.fromHtml(tyre.GetLastSoldDate(false), Html.FROM_HTML_MODE_COMPACT));
+            lastSoldDateText.setText(renderer.RenderField(tyre.GetLastSoldDate(true), tyre.IsLastSoldDateChanged()));
         } catch (Exception e) {
             System.out.println(e.toString());
         }
@@ -2,7 +2,9 @@ package com.example.stockcheck;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.Intent;
 import android.content.res.ColorStateList;
+import android.net.Uri;
 import android.os.Bundle;
 import android.print.PrintAttributes;
 import android.print.PrintDocumentAdapter;
@@ -18,13 +20,23 @@ import android.webkit.WebViewClient;
 import android.widget.TableRow;
 import android.widget.TextView;
 import androidx.activity.OnBackPressedCallback;
+import androidx.activity.result.ActivityResult;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import com.example.stockcheck.databinding.ActivityTyreListBinding;
+import com.example.stockcheck.filemanagement.ImportException;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.TyreFileReader;
+import com.example.stockcheck.filemanagement.TyreImporter;
+import com.example.stockcheck.model.ResourceCommentMarkup;
 import com.example.stockcheck.model.Tyre;
 import com.example.stockcheck.model.TyreContainer;
+import com.example.stockcheck.model.TyreMerge;
+import com.example.stockcheck.report.StockReport;
 import com.example.stockcheck.storage.MetaData;
 import com.example.stockcheck.storage.StoredTyre;
 import com.example.stockcheck.storage.TyreDatabase;
@@ -72,6 +84,64 @@ public class TyreListActivity extends AppCompatActivity {
     private String filterRim = "";
     private String filterSearch = "";
     private boolean showUnstocked = false;
+    /**
+     * Progress of the last file merged into the tyre list, or null if no file has been merged. Kept across activity
+     * instances, so a merge continues through a configuration change.
+     */
+    private static ImportProgress mergeProgress;
+    /**
+     * Adds rows for tyres still being imported, and sorts them once the import finishes
+     */
+    private final TyreContainer.Listener importListener = new TyreContainer.Listener() {
+        @Override
+        public void OnTyresAdded(int firstIndex, int count) {
+            // New tyres are added below the current rows, filtered but not yet sorted
+            for (int i = firstIndex; i < firstIndex + count; i++) {
+                if (FilterTyre(tyreList.get(i))) AddTyreRow(i, new TyreFragment.Widths(0, 0, 0, 0));
+            }
+        }
+
+        @Override
+        public void OnImportFinished() {
+            UpdateImportState();
+            if (!IsSorted()) DisplayTyresKeepingSelection();
+            ImportProgress progress = TyreImporter.GetCurrent();
+            if (progress != null && progress.GetError() != null) {
+                DisplaySnackbar(getString(R.string.import_stopped, TyreImporter.GetErrorText(TyreListActivity.this, progress.GetError()), tyreList.size()));
+            } else {
+                DisplaySnackbar(TyreImporter.GetFinishedText(TyreListActivity.this, progress, tyreList.size()));
+            }
+        }
+
+        /**
+         * Shows a newer file merged into the tyre list, matching them by part. Stock and last sold dates are updated,
+         * seen counts, comments and done flags are kept, and tyres only in the newer file are added.
+         */
+        @Override
+        public void OnMergeFinished(TyreMerge.Result result) {
+            UpdateImportState();
+            if (result == null) {
+                ImportException error = mergeProgress != null ? mergeProgress.GetError() : null;
+                if (error != null) DisplaySnackbar(getString(R.string.update_stopped, TyreImporter.GetErrorText(TyreListActivity.this, error)));
+                return;
+            }
+            DisplayTyresKeepingSelection();
+            if (selectedTyre != null) binding.stockSelectBarText.setText(selectedTyre.GetStock());
+            DisplaySnackbar(getString(R.string.update_finished, result.updated, result.added, result.missing));
+        }
+    };
+    /**
+     * Shows the import's progress until it finishes
+     */
+    private final Runnable progressUpdater = new Runnable() {
+        @Override
+        public void run() {
+            ImportProgress progress = TyreImporter.GetCurrent();
+            if (progress == null || progress.IsFinished()) return;
+            binding.importProgressText.setText(TyreImporter.GetProgressText(TyreListActivity.this, progress));
+            binding.getRoot().postDelayed(this, 200);
+        }
+    };
 
     @SuppressLint("ClickableViewAccessibility")
     @Override
@@ -127,7 +197,7 @@ public class TyreListActivity extends AppCompatActivity {
             @Override
             public void OnScrollChanged(int x, int y, int oldx, int oldy) {
                 // Subtract options and select tabs from scrollY if visible
-                int maxNewY = y - (inOptions ? 158 : 0) - (selectedTyre != null ? 158 : 0);
+                int maxNewY = y - (inOptions ? 158 : 0) - (selectedTyre != null ? 158 : 0) - (binding.importBar.getVisibility() == View.VISIBLE ? 158 : 0);
                 // Cap minimum to y pos at which first tyre row can be culled)
                 maxNewY = Math.max(maxNewY, minScrollY);
                 // Cap maximum to y pos 10 rows above last row
@@ -321,7 +391,7 @@ public class TyreListActivity extends AppCompatActivity {
                 int uncountableTyres = 0;
                 for (int i : displayedTyreIndexes) {
                     try {
-                        int count = CountSeenString(tyreList.get(i).GetSeen());
+                        int count = StockReport.CountSeen(tyreList.get(i).GetSeen());
                         totalCount += count;
                     } catch (Exception ignored) {
                         uncountableTyres++;
@@ -331,6 +401,18 @@ public class TyreListActivity extends AppCompatActivity {
                 DisplaySnackbar("Total seen: " + totalCount + (uncountableTyres > 0 ? "  (" + uncountableTyres + " uncountable seen values)" : ""));
             }
         });
+        // Register file selector launcher for updating the tyres from a newer file
+        ActivityResultLauncher<Intent> updateFileLauncher = registerForActivityResult(
+                new ActivityResultContracts.StartActivityForResult(),
+                TyreListActivity.this::UpdateFileSelected
+        );
+        binding.updateButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                HideTextEditCursor();
+                updateFileLauncher.launch(TyreImporter.CreateFilePickerIntent());
+            }
+        });
         binding.unstockedButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
@@ -409,7 +491,7 @@ public class TyreListActivity extends AppCompatActivity {
             SetColumnWidths(R.id.partText, savedInstanceState.getInt("partTextWidth"));
             SetColumnWidths(R.id.descriptionText, savedInstanceState.getInt("descriptionTextWidth"));
             SetColumnWidths(R.id.locationText, savedInstanceState.getInt("locationTextWidth"));
-            selectedTyre = savedInstanceState.getParcelable("selectedTyre");
+            selectedTyre = (Tyre) savedInstanceState.getSerializable("selectedTyre");
             if (selectedTyre != null) {
                 ShowSelectBar();
             }
@@ -447,6 +529,25 @@ public class TyreListActivity extends AppCompatActivity {
         } else {
             DisplayTyres();
         }
+        // Keep adding tyres if the file is still being imported
+        binding.importCancelButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                ImportProgress progress = TyreImporter.GetCurrent();
+                if (progress != null) progress.Cancel();
+            }
+        });
+        UpdateImportState();
+        TyreContainer.getInstance().AddListener(importListener);
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Leaving the tyre list stops a merge, but a configuration change keeps it for the next activity
+        if (mergeProgress != null && !isChangingConfigurations()) mergeProgress.Cancel();
+        TyreContainer.getInstance().RemoveListener(importListener);
+        binding.getRoot().removeCallbacks(progressUpdater);
+        super.onDestroy();
     }
 
     @Override
@@ -460,7 +561,7 @@ public class TyreListActivity extends AppCompatActivity {
         bundle.putInt("descriptionTextWidth", binding.categoryRow.findViewById(R.id.descriptionText).getWidth());
         bundle.putInt("locationTextWidth", binding.categoryRow.findViewById(R.id.locationText).getWidth());
         bundle.putInt("supplierPartCodeTextWidth", binding.categoryRow.findViewById(R.id.supplierPartCodeText).getWidth());
-        bundle.putParcelable("selectedTyre", selectedTyre);
+        bundle.putSerializable("selectedTyre", selectedTyre);
         bundle.putString("selectedTyreTag", selectedTyreTag);
         bundle.putSerializable("sortCategory", sortCategory);
         bundle.putBoolean("sortAscending", sortAscending);
@@ -475,10 +576,43 @@ public class TyreListActivity extends AppCompatActivity {
      * Recreates tyre table and applies search+sort parameters
      */
     private void DisplayTyres(int pWidth, int dWidth, int lWidth, int sWidth) {
-        int tyreId = tyreIdOffset;
         // Clear table
         ClearTyres();
         // Sort tyre list
+        tyreList.sort(GetSortComparator());
+        // Iterate over each tyre, adding to display if it passes the filter
+        TyreFragment.Widths widths = new TyreFragment.Widths(pWidth, dWidth, lWidth, sWidth);
+        for (int i = 0; i < tyreList.size(); i++) {
+            // Filter tyres
+            if (FilterTyre(tyreList.get(i))) AddTyreRow(i, widths);
+        }
+        HideTextEditCursor();
+    }
+
+    /**
+     * Adds a row for a tyre to the end of the table, with a tyre fragment if the row is in view
+     * @param tyreIndex Index of the tyre in the tyre list
+     * @param widths Column widths for the tyre fragment
+     */
+    private void AddTyreRow(int tyreIndex, TyreFragment.Widths widths) {
+        // Add a new tyre fragment to display table, as a child of a new table row
+        TableRow newRow = new TableRow(getApplicationContext());
+        newRow.setMinimumHeight(101);
+        int newId = View.generateViewId();
+        tableRowIDs.add(newId);
+        newRow.setId(newId);
+        if (rowCount >= lastTopTyreIndex && rowCount < lastTopTyreIndex + maxDisplayedTyres) {
+            getSupportFragmentManager().beginTransaction().add(newId, TyreFragment.newInstance(
+                    tyreList.get(tyreIndex),
+                    selectedTyre != null && selectedTyre.equals(tyreList.get(tyreIndex)),
+                    widths), "TyreFrag" + (rowCount + tyreIdOffset)).commit();
+        }
+        binding.tyreTable.addView(newRow);
+        rowCount++;
+        displayedTyreIndexes.add(tyreIndex);
+    }
+
+    private Comparator<Tyre> GetSortComparator() {
         Comparator<Tyre> comparator = null;
         switch (sortCategory) {
             case PARTNUMBER: {
@@ -491,30 +625,86 @@ public class TyreListActivity extends AppCompatActivity {
                 comparator = new Tyre.SortByStock();
                 break; }
         }
-        tyreList.sort(sortAscending ? comparator : comparator.reversed());
-        // Iterate over each tyre, adding to display if it passes the filter
-        for (int i = 0; i < tyreList.size(); i++) {
-            // Filter tyres
-            if (FilterTyre(tyreList.get(i))) {
-                // Add a new tyre fragment to display table, as a child of a new table row
-                TableRow newRow = new TableRow(getApplicationContext());
-                newRow.setMinimumHeight(101);
-                int newId = View.generateViewId();
-                tableRowIDs.add(newId);
-                newRow.setId(newId);
-                if (rowCount < maxDisplayedTyres) {
-                    getSupportFragmentManager().beginTransaction().add(newId, TyreFragment.newInstance(
-                            tyreList.get(i),
-                            selectedTyre != null && selectedTyre.equals(tyreList.get(i)),
-                            new TyreFragment.Widths(pWidth, dWidth, lWidth, sWidth)), "TyreFrag" + tyreId).commit();
+        return sortAscending ? comparator : comparator.reversed();
+    }
+
+    /**
+     * @return Whether the tyre list is already in the current sort order
+     */
+    private boolean IsSorted() {
+        Comparator<Tyre> comparator = GetSortComparator();
+        for (int i = 1; i < tyreList.size(); i++) {
+            if (comparator.compare(tyreList.get(i - 1), tyreList.get(i)) > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Shows the import bar while the file is still being imported, or a newer file is being merged. Adding and
+     * printing tyres are disabled unless every tyre in the file was imported, since new tyre ids and printed lists
+     * depend on the full tyre list.
+     */
+    private void UpdateImportState() {
+        boolean importing = TyreContainer.getInstance().IsImporting();
+        boolean merging = TyreContainer.getInstance().IsMerging();
+        // Decided by the import that filled the list, as a failed merge leaves the list as it was
+        boolean complete = TyreContainer.getInstance().IsComplete();
+        binding.importBar.setVisibility(importing || merging ? View.VISIBLE : View.GONE);
+        binding.newButton.setEnabled(complete && !merging);
+        binding.printButton.setEnabled(complete && !merging);
+        binding.updateButton.setEnabled(complete && !merging);
+        if (importing || merging) progressUpdater.run();
+    }
+
+    /**
+     * Takes a file selector activity result, and imports the selected file in the background. Once every tyre in
+     * the file is imported, it is merged into the tyre list.
+     * @param result The file selector activity result
+     */
+    private void UpdateFileSelected(ActivityResult result) {
+        Intent resultIntent = result.getData();
+        if (resultIntent == null || resultIntent.getData() == null) return;
+        Uri fileUri = resultIntent.getData();
+        try {
+            TyreFileReader reader = TyreImporter.ReaderFor(TestableContentResolver.GetType(getApplicationContext(), fileUri));
+            ArrayList<Tyre> importedTyres = new ArrayList<>();
+            int mergeId = TyreContainer.getInstance().StartMerge();
+            // The merge is finished through the container, so whichever activity is showing the list is told
+            mergeProgress = TyreImporter.Start(fileUri, getApplicationContext(), reader, TyreImporter.LoadColumnSchema(this), TyreImporter.LoadFilter(this), this::runOnUiThread, new TyreImporter.Callback() {
+                @Override
+                public void OnTyres(ArrayList<Tyre> batch) {
+                    importedTyres.addAll(batch);
+                }
+
+                @Override
+                public void OnFinished() {
+                    TyreContainer.getInstance().FinishMerge(mergeId, importedTyres);
                 }
-                binding.tyreTable.addView(newRow);
-                tyreId++;
-                rowCount++;
-                displayedTyreIndexes.add(i);
+
+                @Override
+                public void OnFailed(ImportException e) {
+                    TyreContainer.getInstance().FinishMerge(mergeId, null);
+                }
+            });
+            UpdateImportState();
+        } catch (ImportException e) {
+            DisplaySnackbar(getString(R.string.update_stopped, TyreImporter.GetErrorText(this, e)));
+        }
+    }
+
+    /**
+     * Recreates the tyre table, then finds the selected tyre's new row, as rows may have moved
+     */
+    private void DisplayTyresKeepingSelection() {
+        DisplayTyres();
+        if (selectedTyre != null) {
+            int row = displayedTyreIndexes.indexOf(tyreList.indexOf(selectedTyre));
+            if (row != -1) {
+                selectedTyreTag = "TyreFrag" + (row + tyreIdOffset);
+            } else {
+                DeselectTyre();
             }
         }
-        HideTextEditCursor();
     }
     private void DisplayTyres() {
         DisplayTyres(0, 0, 0, 0);
@@ -671,56 +861,10 @@ public class TyreListActivity extends AppCompatActivity {
             }
         });
         // Generate html string to visualise tyre table
-        StringBuilder htmlTable = new StringBuilder("<head><style>@page{margin:20px;margin-bottom:35px;@bottom-center{content:counter(page)\" of \"counter(pages);margin-bottom:30px;}}" +
-                "table{page-break-after:auto;}tr{page-break-inside:avoid;page-break-after:auto}td{page-break-inside:avoid;page-break-after:auto}" +
-                "table,th,td{border:0.1pt solid DarkGray;border-collapse:collapse;font-size:12px;color:DimGrey;}" +
-                "th{text-align:left;}th,td{padding:1px;}u{text-decoration-color:#007700;}" +
-                "s{text-decoration-color:#770000;}</style></head><body>");
-        htmlTable.append("<h3>").append(LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).append("</h3>");
-        htmlTable.append("<table><tr><th></th><th>Part</th><th style=\"width:20%\">Supplier Part Code</th><th>Description</th><th>Location</th><th>Stock</th><th>Seen</th><th>Last Sold</th></tr>");
         tyreList.sort(new Tyre.SortByPartNumber());
-        for (Tyre tyre : tyreList) {
-            int stockNum;
-            try {
-                stockNum = Integer.parseInt(tyre.GetStock());
-            } catch (Exception e) {
-                stockNum = -1;
-            }
-            boolean seenMatchesStock = false;
-            if (tyre.GetSeen().equals(tyre.GetStock())) {
-                seenMatchesStock = true;
-            } else {
-                try {
-                    int seenInt = CountSeenString(tyre.GetSeen());
-                    if (seenInt == Integer.parseInt(tyre.GetStock())) seenMatchesStock = true;
-                } catch (Exception ignored) {}
-            }
-            if (tyre.IsEdited() || !seenMatchesStock || stockNum > 0) {
-                htmlTable.append("<tr><td style=\"color:Black;width:1%;\">")
-                        .append(tyre.IsAdded() ? "✚" : (tyre.IsEdited() || !seenMatchesStock) ? "●" : "")
-                        .append("</td><td>")
-                        .append(tyre.GetPart(false, getApplicationContext()))
-                        .append("</td><td>")
-                        .append(tyre.GetSupplierPartCode(false, getApplicationContext()))
-                        .append("</td><td>")
-                        .append(tyre.GetDescription(false, getApplicationContext()))
-                        .append("</td><td>")
-                        .append(tyre.GetLocation(false, getApplicationContext()))
-                        .append("</td><td style=\"text-align:center;" + (!seenMatchesStock ? "color:#770000;" : "") + "\">" + (!seenMatchesStock ? "<b>" : ""))
-                        .append(tyre.GetStock())
-                        .append((!seenMatchesStock ? "</b>" : "") + "</td><td style=\"text-align:center;" + (!seenMatchesStock ? "color:#770000;" : "") + "\">" + (!seenMatchesStock ? "<b>" : ""))
-                        .append(tyre.GetSeen())
-                        .append((!seenMatchesStock ? "</b>" : "") + "</td><td>")
-                        .append(tyre.GetLastSoldDate(false))
-                        .append("</tr>");
-                if (!tyre.GetComment(true).isBlank()) htmlTable.append("<tr><td colspan=\"8\">▲ ")
-                        .append(tyre.GetComment(false))
-                        .append("</td></tr>");
-            }
-        }
-        htmlTable.append("</table></body>");
+        String html = StockReport.Html(tyreList, ResourceCommentMarkup.From(getApplicationContext()), LocalDate.now());
         // Pass html string into webview
-        webView.loadDataWithBaseURL(null, htmlTable.toString(), "text/HTML", "UTF-8", null);
+        webView.loadDataWithBaseURL(null, html, "text/HTML", "UTF-8", null);
     }
 
     private void SendPrintJob(WebView webView) {
@@ -742,7 +886,7 @@ public class TyreListActivity extends AppCompatActivity {
             ArrayList<StoredTyre> tyresToStore = new ArrayList<>();
             for (Tyre tyre : tyreList) {
                 if (tyre.IsEdited() || !tyre.GetSeen().equals("0") || tyre.isDone || tyre.IsAdded()) {
-                    tyresToStore.add(tyre.ToStoredTyre());
+                    tyresToStore.add(StoredTyre.From(tyre));
                     tyresSaved = true;
                 }
             }
@@ -862,28 +1006,6 @@ public class TyreListActivity extends AppCompatActivity {
         binding.searchText.clearFocus();
     }
 
-    private static int CountSeenString(String seen) throws Exception {
-        int count = 0;
-        try {
-            if (seen.contains("/")) {
-                String[] splits = seen.split("/");
-                for (String s : splits) {
-                    count += Integer.parseUnsignedInt(s);
-                }
-            } else if (seen.contains("\\")) {
-                String[] splits = seen.split("\\\\");
-                for (String s : splits) {
-                    count += Integer.parseUnsignedInt(s);
-                }
-            } else {
-                count = Integer.parseUnsignedInt(seen);
-            }
-            return count;
-        } catch (Exception ignored) {
-            throw new Exception("Not an integer, or integers separated by slashes");
-        }
-    }
-
     private void DisplaySnackbar(String message) {
         Snackbar snackbar = Snackbar.make(
                 binding.rootFrame,
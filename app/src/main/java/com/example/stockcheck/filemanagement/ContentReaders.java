@@ -0,0 +1,121 @@
+package com.example.stockcheck.filemanagement;
+
+import android.content.Context;
+import android.net.Uri;
+import com.example.stockcheck.model.Tyre;
+import java.util.ArrayList;
+
+/**
+ * Opens files picked through the content resolver and passes them to the readers, using the mapped file where the
+ * provider allows it and the stream otherwise.
+ */
+public class ContentReaders {
+
+    private ContentReaders() {}
+
+    /**
+     * Reads and parses a .csv file to get a list of tyres, in parallel if the file is large enough
+     * @param uri Uri of .csv file
+     * @param applicationContext Application context
+     * @return An ArrayList of tyres
+     * @throws Exception If file cannot be read or contains invalid categories
+     */
+    public static ArrayList<Tyre> ReadCSV(Uri uri, Context applicationContext) throws Exception {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        ReadCSV(uri, applicationContext, ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.PARALLEL, new ImportProgress(), tyreList::add);
+        return tyreList;
+    }
+
+    /**
+     * Reads and parses a .csv file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param uri Uri of .csv file
+     * @param applicationContext Application context
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If file cannot be read or contains invalid categories, or the import is cancelled
+     */
+    public static void ReadCSV(Uri uri, Context applicationContext, ColumnSchema schema, ImportFilter filter, CSVReader.Mode mode, ImportProgress progress, TyreSink sink) throws Exception {
+        try (ImportSource source = ImportSource.Open(uri, applicationContext)) {
+            ReadCSV(source, schema, filter, mode, progress, sink);
+        }
+    }
+
+    /**
+     * Parses an opened .csv file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param source Opened .csv file, which is left open
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If file cannot be read or contains invalid categories, or the import is cancelled
+     */
+    public static void ReadCSV(ImportSource source, ColumnSchema schema, ImportFilter filter, CSVReader.Mode mode, ImportProgress progress, TyreSink sink) throws Exception {
+        try {
+            if (source.IsMapped()) {
+                // Parse the mapped file in place
+                progress.SetTotalBytes(source.GetBuffer().limit());
+                CSVReader.Read(source.GetBuffer(), schema, filter, mode, progress, sink);
+            } else {
+                CSVReader.Read(source.GetStream(), schema, filter, mode, progress, sink);
+            }
+        } catch (Exception e) {
+            System.out.println(e.toString());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads and parses a .xlsx file to get a list of tyres
+     * @param uri Uri of a .xlsx file
+     * @param applicationContext Application context
+     * @return An ArrayList of tyres
+     * @throws Exception If file cannot be read, or contains invalid categories
+     */
+    public static ArrayList<Tyre> ReadXLSX(Uri uri, Context applicationContext) throws Exception {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        ReadXLSX(uri, applicationContext, ColumnSchema.Default(), ImportFilter.Default(), new ImportProgress(), tyreList::add);
+        return tyreList;
+    }
+
+    /**
+     * Reads and parses a .xlsx file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param uri Uri of a .xlsx file
+     * @param applicationContext Application context
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If file cannot be read, or contains invalid categories, or the import is cancelled
+     */
+    public static void ReadXLSX(Uri uri, Context applicationContext, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        try (ImportSource source = ImportSource.Open(uri, applicationContext)) {
+            ReadXLSX(source, schema, filter, progress, sink);
+        }
+    }
+
+    /**
+     * Parses an opened .xlsx file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param source Opened .xlsx file, which is left open
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If file cannot be read, or contains invalid categories, or the import is cancelled
+     */
+    public static void ReadXLSX(ImportSource source, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        try {
+            if (source.IsMapped()) {
+                XLSXReader.Read(source.GetBuffer(), schema, filter, progress, sink);
+            } else {
+                XLSXReader.Read(source.GetStream(), schema, filter, progress, sink);
+            }
+        } catch (Exception e) {
+            System.out.println(e.toString());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.stockcheck.filemanagement;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An opened import file. When the file's provider gives a seekable file descriptor, the file is memory-mapped so
+ * readers can access its bytes without copying them, otherwise it is read as a stream.
+ */
+public class ImportSource implements Closeable {
+
+    private final AssetFileDescriptor fileDescriptor;
+    private final FileInputStream fileInputStream;
+    private final ByteBuffer mappedBuffer;
+    private final InputStream inputStream;
+    private TyreSnapshot.FingerprintingInputStream fingerprintingStream;
+
+    private ImportSource(AssetFileDescriptor fileDescriptor, FileInputStream fileInputStream, ByteBuffer mappedBuffer, InputStream inputStream) {
+        this.fileDescriptor = fileDescriptor;
+        this.fileInputStream = fileInputStream;
+        this.mappedBuffer = mappedBuffer;
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Opens a file, memory-mapping it if possible.
+     * @param uri Uri of the file
+     * @param applicationContext Application context
+     * @return The opened file, which must be closed after use
+     * @throws ImportException If the file cannot be opened
+     */
+    public static ImportSource Open(Uri uri, Context applicationContext) throws ImportException {
+        ImportSource mapped = TryMap(uri, applicationContext);
+        if (mapped != null) return mapped;
+        InputStream inputStream;
+        try {
+            inputStream = applicationContext.getContentResolver().openInputStream(uri);
+        } catch (Exception e) {
+            throw new ImportException(ImportException.Reason.CANNOT_OPEN, e.toString(), e);
+        }
+        if (inputStream == null) throw new ImportException(ImportException.Reason.CANNOT_OPEN, "Cannot open file");
+        return new ImportSource(null, null, null, inputStream);
+    }
+
+    /**
+     * Tries to memory-map a file through its file descriptor.
+     * @return The mapped file, or null if the provider does not give a seekable file descriptor
+     */
+    private static ImportSource TryMap(Uri uri, Context applicationContext) {
+        AssetFileDescriptor fileDescriptor = null;
+        FileInputStream fileInputStream = null;
+        try {
+            fileDescriptor = applicationContext.getContentResolver().openAssetFileDescriptor(uri, "r");
+            // Pipes and sockets have no size and cannot be mapped
+            if (fileDescriptor == null || fileDescriptor.getParcelFileDescriptor().getStatSize() < 0) throw new IOException("Not seekable");
+            fileInputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
+            FileChannel channel = fileInputStream.getChannel();
+            long start = fileDescriptor.getStartOffset();
+            long length = fileDescriptor.getLength() != AssetFileDescriptor.UNKNOWN_LENGTH ? fileDescriptor.getLength() : channel.size() - start;
+            if (length > Integer.MAX_VALUE) throw new IOException("File too large to map");
+            ByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            return new ImportSource(fileDescriptor, fileInputStream, mappedBuffer, null);
+        } catch (Exception e) {
+            // Fall back to reading as a stream
+            try {
+                if (fileInputStream != null) fileInputStream.close();
+                if (fileDescriptor != null) fileDescriptor.close();
+            } catch (IOException ignored) {}
+            return null;
+        }
+    }
+
+    /**
+     * @return Whether the file is memory-mapped, rather than read as a stream
+     */
+    public boolean IsMapped() {
+        return mappedBuffer != null;
+    }
+
+    /**
+     * @return The mapped file, from index 0 to its limit, or null if the file is not mapped
+     */
+    public ByteBuffer GetBuffer() {
+        return mappedBuffer;
+    }
+
+    /**
+     * @return A stream of the file. For a mapped file this reads from the mapped buffer.
+     */
+    public InputStream GetStream() {
+        if (mappedBuffer != null) return new ByteBufferInputStream(mappedBuffer);
+        return fingerprintingStream != null ? fingerprintingStream : inputStream;
+    }
+
+    /**
+     * Fingerprints the stream of a file that is not mapped as it is read, so it does not need to be read twice.
+     * Must be called before the stream is read.
+     * @return Stream whose Finish gives the fingerprint once the file has been parsed
+     */
+    public TyreSnapshot.FingerprintingInputStream Fingerprint() throws Exception {
+        if (fingerprintingStream == null) fingerprintingStream = new TyreSnapshot.FingerprintingInputStream(inputStream);
+        return fingerprintingStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inputStream != null) inputStream.close();
+        if (fileInputStream != null) fileInputStream.close();
+        if (fileDescriptor != null) fileDescriptor.close();
+    }
+}
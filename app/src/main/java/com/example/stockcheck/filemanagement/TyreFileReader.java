@@ -0,0 +1,18 @@
+package com.example.stockcheck.filemanagement;
+
+/**
+ * A reader of one file type, as run by TyreImporter.
+ */
+public interface TyreFileReader {
+
+    /**
+     * Parses a file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param source Opened file, which is left open
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If the file cannot be read, or the import is cancelled
+     */
+    void Read(ImportSource source, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception;
+}
@@ -0,0 +1,265 @@
+package com.example.stockcheck.filemanagement;
+
+import android.content.Context;
+import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
+import android.text.format.Formatter;
+import com.example.stockcheck.R;
+import com.example.stockcheck.model.Tyre;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs imports on a background thread, so the UI thread is never blocked by parsing. One import runs at a time,
+ * and starting a new import cancels the current one.
+ */
+public class TyreImporter {
+
+    /**
+     * Receives the results of an import, on the callback executor given when the import was started
+     */
+    public interface Callback {
+        /**
+         * Called with each batch of tyres, in id order
+         */
+        void OnTyres(ArrayList<Tyre> batch);
+
+        /**
+         * Called once every tyre in the file has been passed on
+         */
+        void OnFinished();
+
+        /**
+         * Called instead of OnFinished if the import failed or was cancelled. Tyres already passed on are kept.
+         */
+        void OnFailed(ImportException e);
+    }
+
+    private static final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
+    private static volatile ImportProgress current;
+
+    /**
+     * @return Intent opening a file picker restricted to the file types that can be imported
+     */
+    public static Intent CreateFilePickerIntent() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        String [] mimeTypes = {"text/csv", "text/comma-separated-values", "text/plain", "application/csv", "application/vnd.ms-excel", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                "application/gzip", "application/x-gzip", "application/zip", "application/x-zip-compressed"};
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, mimeTypes);
+        return intent;
+    }
+
+    /**
+     * Gets the reader for a file type
+     * @param fileType MIME type of the file
+     * @return Reader of the file type
+     * @throws ImportException If the file type cannot be imported
+     */
+    public static TyreFileReader ReaderFor(String fileType) throws ImportException {
+        switch (fileType) {
+            case "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet":
+                return ContentReaders::ReadXLSX;
+            case "text/csv":
+            case "text/comma-separated-values":
+            case "text/plain":
+            case "application/csv":
+            case "application/vnd.ms-excel":
+            // Compressed .csv files, recognised by CSVReader from their first bytes
+            case "application/gzip":
+            case "application/x-gzip":
+            case "application/zip":
+            case "application/x-zip-compressed":
+                return (source, schema, filter, progress, sink) -> ContentReaders.ReadCSV(source, schema, filter, CSVReader.Mode.PARALLEL, progress, sink);
+            default:
+                throw new ImportException(ImportException.Reason.UNSUPPORTED_TYPE, "Invalid file type selected: " + fileType);
+        }
+    }
+
+    /**
+     * @return The import filter configured in the app's resources
+     */
+    public static ImportFilter LoadFilter(Context context) {
+        return new ImportFilter(context.getResources().getStringArray(R.array.import_categories), context.getResources().getStringArray(R.array.import_part_prefixes));
+    }
+
+    /**
+     * @return The column schema configured in the app's resources
+     */
+    public static ColumnSchema LoadColumnSchema(Context context) {
+        return new ColumnSchema(new String[][] {
+                context.getResources().getStringArray(R.array.import_headers_part),
+                context.getResources().getStringArray(R.array.import_headers_supplier_part_codes),
+                context.getResources().getStringArray(R.array.import_headers_description),
+                context.getResources().getStringArray(R.array.import_headers_location),
+                context.getResources().getStringArray(R.array.import_headers_stock),
+                context.getResources().getStringArray(R.array.import_headers_last_sold_date),
+                context.getResources().getStringArray(R.array.import_headers_category)
+        }, context.getResources().getStringArray(R.array.import_fallback_columns));
+    }
+
+    /**
+     * Starts importing a file in the background
+     * @param uri Uri of the file
+     * @param applicationContext Application context
+     * @param reader Reader of the file's type
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param callbackExecutor Executor the callback is run on, such as the UI thread
+     * @param callback Receives the tyres and the result of the import
+     * @return Progress of the import, which can also be used to cancel it
+     */
+    public static ImportProgress Start(Uri uri, Context applicationContext, TyreFileReader reader, ColumnSchema schema, ImportFilter filter, Executor callbackExecutor, Callback callback) {
+        ImportProgress previous = current;
+        if (previous != null) previous.Cancel();
+        ImportProgress progress = new ImportProgress();
+        current = progress;
+        importExecutor.execute(() -> {
+            ImportException error = null;
+            try {
+                progress.ThrowIfCancelled();
+                BatchingTyreSink sink = new BatchingTyreSink(batch -> callbackExecutor.execute(() -> callback.OnTyres(batch)));
+                ReadWithSnapshot(uri, applicationContext, reader, schema, filter, progress, tyre -> {
+                    progress.AddTyresKept(1);
+                    sink.Add(tyre);
+                });
+                sink.Flush();
+            } catch (Exception e) {
+                // Any failure after cancelling, such as a stopped read, is caused by the cancellation
+                error = progress.IsCancelled() ? new ImportException(ImportException.Reason.CANCELLED, "Import cancelled", e) : ImportException.From(e);
+                System.out.println(error.toString());
+            }
+            progress.Finish(error);
+            final ImportException finalError = error;
+            callbackExecutor.execute(() -> {
+                if (finalError == null) {
+                    callback.OnFinished();
+                } else {
+                    callback.OnFailed(finalError);
+                }
+            });
+        });
+        return progress;
+    }
+
+    /**
+     * Reads a file from its snapshot if the same file was imported before with the same settings. Otherwise parses
+     * it with its reader, saving a snapshot of the tyres for next time. A mapped file is fingerprinted before it is
+     * parsed. A streamed file can only be read once, so its snapshot is found by what its provider reports about it,
+     * and otherwise it is fingerprinted while it is parsed and its snapshot named once committed.
+     */
+    private static void ReadWithSnapshot(Uri uri, Context applicationContext, TyreFileReader reader, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        File directory = GetSnapshotDirectory(applicationContext);
+        try (ImportSource source = ImportSource.Open(uri, applicationContext)) {
+            String fingerprint = null;
+            String sourceKey = null;
+            if (source.IsMapped()) {
+                fingerprint = TyreSnapshot.Fingerprint(source.GetBuffer(), schema, filter, progress);
+            } else {
+                sourceKey = QuerySourceKey(uri, applicationContext, schema, filter);
+                if (sourceKey != null) fingerprint = TyreSnapshot.FindFingerprint(directory, sourceKey);
+            }
+            ArrayList<Tyre> snapshotTyres = fingerprint != null ? TyreSnapshot.Read(directory, fingerprint, progress) : null;
+            if (snapshotTyres != null) {
+                for (Tyre tyre : snapshotTyres) sink.Add(tyre);
+                return;
+            }
+            TyreSnapshot.FingerprintingInputStream fingerprintingStream = source.IsMapped() ? null : source.Fingerprint();
+            TyreSnapshot.Writer writer = new TyreSnapshot.Writer(directory);
+            try {
+                reader.Read(source, schema, filter, progress, tyre -> {
+                    // Save the tyre before it is passed on and can be edited
+                    writer.Add(tyre);
+                    sink.Add(tyre);
+                });
+                if (fingerprintingStream != null) fingerprint = fingerprintingStream.Finish(schema, filter, progress);
+                writer.Commit(fingerprint, sourceKey);
+            } finally {
+                writer.Abort();
+            }
+        }
+    }
+
+    /**
+     * Gets a key for a streamed file from its size and modified time, as reported by its provider
+     * @return Key of the file, or null if the provider does not report both
+     */
+    private static String QuerySourceKey(Uri uri, Context applicationContext, ColumnSchema schema, ImportFilter filter) {
+        String[] projection = {OpenableColumns.SIZE, DocumentsContract.Document.COLUMN_LAST_MODIFIED};
+        try (Cursor cursor = applicationContext.getContentResolver().query(uri, projection, null, null, null)) {
+            if (cursor == null || !cursor.moveToFirst()) return null;
+            int sizeIndex = cursor.getColumnIndex(OpenableColumns.SIZE);
+            int lastModifiedIndex = cursor.getColumnIndex(DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+            if (sizeIndex == -1 || lastModifiedIndex == -1 || cursor.isNull(sizeIndex) || cursor.isNull(lastModifiedIndex)) return null;
+            return TyreSnapshot.SourceKey(uri.toString(), cursor.getLong(sizeIndex), cursor.getLong(lastModifiedIndex), schema, filter);
+        } catch (Exception e) {
+            // Without a key the file is still fingerprinted while it is parsed
+            System.out.println(e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return Directory snapshots are kept in, which the system may clear when storage is low
+     */
+    public static File GetSnapshotDirectory(Context applicationContext) {
+        return new File(applicationContext.getCacheDir(), "snapshots");
+    }
+
+    /**
+     * @return Progress of the most recently started import, or null if no import has been started
+     */
+    public static ImportProgress GetCurrent() {
+        return current;
+    }
+
+    /**
+     * @return Message describing why an import failed
+     */
+    public static String GetErrorText(Context context, ImportException e) {
+        switch (e.GetReason()) {
+            case UNSUPPORTED_TYPE:
+                return context.getString(R.string.import_error_unsupported_type);
+            case CANNOT_OPEN:
+                return context.getString(R.string.import_error_cannot_open);
+            case READ_FAILED:
+                return context.getString(R.string.import_error_read_failed);
+            case CANCELLED:
+                return context.getString(R.string.import_error_cancelled);
+            default:
+                return context.getString(R.string.import_error_invalid_file);
+        }
+    }
+
+    /**
+     * @param progress Progress of the finished import, or null if the tyres were not imported
+     * @param tyreCount Number of tyres loaded
+     * @return Message describing a finished import, with the memory saved by sharing repeated field text
+     */
+    public static String GetFinishedText(Context context, ImportProgress progress, int tyreCount) {
+        long bytesSaved = progress != null ? progress.GetStringPool().GetBytesSaved() : 0;
+        if (bytesSaved > 0) {
+            return context.getString(R.string.import_finished_shared, tyreCount, Formatter.formatShortFileSize(context, bytesSaved));
+        }
+        return context.getString(R.string.import_finished, tyreCount);
+    }
+
+    /**
+     * @return Message describing how far an import has got
+     */
+    public static String GetProgressText(Context context, ImportProgress progress) {
+        long totalBytes = progress.GetTotalBytes();
+        if (totalBytes > 0) {
+            int percent = (int) Math.min(100, progress.GetBytesRead() * 100 / totalBytes);
+            return context.getString(R.string.import_progress_percent, percent, progress.GetTyresKept(), progress.GetRowsSeen());
+        }
+        return context.getString(R.string.import_progress_bytes, Formatter.formatShortFileSize(context, progress.GetBytesRead()), progress.GetTyresKept(), progress.GetRowsSeen());
+    }
+}
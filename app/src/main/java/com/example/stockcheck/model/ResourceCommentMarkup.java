@@ -0,0 +1,22 @@
+package com.example.stockcheck.model;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import com.example.stockcheck.R;
+
+/**
+ * Builds the comment markup from the app's string and colour resources.
+ */
+public class ResourceCommentMarkup {
+
+    private ResourceCommentMarkup() {}
+
+    @SuppressLint("ResourceType")
+    public static CommentMarkup From(Context context) {
+        return new CommentMarkup(
+                context.getString(R.string.inserted_start, context.getString(R.color.char_inserted)),
+                context.getString(R.string.inserted_end),
+                context.getString(R.string.deleted_start, context.getString(R.color.char_deleted)),
+                context.getString(R.string.deleted_end));
+    }
+}
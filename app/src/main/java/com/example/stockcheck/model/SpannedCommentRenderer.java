@@ -0,0 +1,88 @@
+package com.example.stockcheck.model;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.SpannedString;
+import android.text.style.ForegroundColorSpan;
+import android.text.style.StrikethroughSpan;
+import android.text.style.StyleSpan;
+import android.text.style.UnderlineSpan;
+import androidx.core.content.ContextCompat;
+import com.example.stockcheck.R;
+
+/**
+ * Renders comments as styled text for display, with the same styles as the comment markup: inserted text bold,
+ * underlined and green, deleted text struck through and red. Results are cached by each comment until it is edited.
+ */
+public class SpannedCommentRenderer implements TyreComment.Renderer<Spanned> {
+
+    private final int insertedColour;
+    private final int deletedColour;
+
+    public SpannedCommentRenderer(int insertedColour, int deletedColour) {
+        this.insertedColour = insertedColour;
+        this.deletedColour = deletedColour;
+    }
+
+    public static SpannedCommentRenderer From(Context context) {
+        return new SpannedCommentRenderer(ContextCompat.getColor(context, R.color.char_inserted),
+                ContextCompat.getColor(context, R.color.char_deleted));
+    }
+
+    @Override
+    public Spanned Render(TyreComment comment) {
+        SpannableStringBuilder builder = new SpannableStringBuilder();
+        // Neighbouring runs of one type share spans, which are set once the run ends
+        Tyre.CharType[] runType = {Tyre.CharType.UNCHANGED};
+        int[] runStart = {0};
+        comment.VisitRuns((text, start, end, type) -> {
+            if (type != runType[0]) {
+                SetSpans(builder, runStart[0], builder.length(), runType[0]);
+                runType[0] = type;
+                runStart[0] = builder.length();
+            }
+            builder.append(text, start, end);
+        });
+        SetSpans(builder, runStart[0], builder.length(), runType[0]);
+        return new SpannedString(builder);
+    }
+
+    /**
+     * Renders text that is shown as inserted when changed, such as the last sold date
+     * @param text Text to render
+     * @param changed Whether the text has been changed
+     * @return Styled text
+     */
+    public CharSequence RenderField(String text, boolean changed) {
+        if (!changed) return text;
+        SpannableStringBuilder builder = new SpannableStringBuilder(text);
+        SetSpans(builder, 0, builder.length(), Tyre.CharType.INSERTED);
+        return new SpannedString(builder);
+    }
+
+    private void SetSpans(SpannableStringBuilder builder, int start, int end, Tyre.CharType type) {
+        if (start == end || type == Tyre.CharType.UNCHANGED) return;
+        if (type == Tyre.CharType.INSERTED) {
+            builder.setSpan(new StyleSpan(Typeface.BOLD), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            builder.setSpan(new UnderlineSpan(), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            builder.setSpan(new ForegroundColorSpan(insertedColour), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        } else {
+            builder.setSpan(new StrikethroughSpan(), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            builder.setSpan(new ForegroundColorSpan(deletedColour), start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SpannedCommentRenderer)) return false;
+        SpannedCommentRenderer other = (SpannedCommentRenderer) o;
+        return insertedColour == other.insertedColour && deletedColour == other.deletedColour;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * insertedColour + deletedColour;
+    }
+}
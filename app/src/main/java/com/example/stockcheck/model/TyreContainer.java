@@ -1,14 +1,47 @@
 package com.example.stockcheck.model;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Singleton container of ArrayList of tyres, for access between activities.
+ * While a file is being imported, tyres are added in batches as they are parsed, and listeners are told about each
+ * batch. A newer file can then be merged into the list. Merges are kept here rather than by an activity, so they
+ * survive configuration changes. Only the UI thread should change the list or the listeners.
  */
 public class TyreContainer {
 
+    /**
+     * Receives changes to the tyre list during an import
+     */
+    public interface Listener {
+        /**
+         * Called after a batch of tyres has been added to the end of the list
+         * @param firstIndex Index in the list of the first new tyre
+         * @param count Number of new tyres
+         */
+        void OnTyresAdded(int firstIndex, int count);
+
+        /**
+         * Called once the import has finished, and every tyre in the file is in the list
+         */
+        void OnImportFinished();
+
+        /**
+         * Called once a merge of a newer file has finished
+         * @param result Counts of how the tyres were merged, or null if the newer file could not be imported
+         */
+        void OnMergeFinished(TyreMerge.Result result);
+    }
+
     private static volatile TyreContainer instance;
     private ArrayList<Tyre> tyreList;
+    private boolean importing = false;
+    // Whether every tyre in the file was imported, decided by the import that filled the list, not by merges
+    private boolean complete = true;
+    private boolean merging = false;
+    private int currentImportId = 0;
+    private final ArrayList<Listener> listeners = new ArrayList<>();
 
     private TyreContainer() {
 
@@ -27,10 +60,104 @@ public class TyreContainer {
 
     public void SetTyreList(ArrayList<Tyre> newList) {
         tyreList = newList;
+        importing = false;
+        complete = true;
+        merging = false;
+        currentImportId++;
     }
 
     public ArrayList<Tyre> GetTyreList() {
         return tyreList;
     }
 
+    /**
+     * Replaces the tyre list with an empty list, which is filled by AddTyres until FinishImport is called
+     * @return Id of the new import. Batches from any earlier import are ignored.
+     */
+    public int StartImport() {
+        tyreList = new ArrayList<>();
+        importing = true;
+        complete = false;
+        merging = false;
+        return ++currentImportId;
+    }
+
+    /**
+     * Adds a batch of imported tyres to the end of the list
+     * @param importId Id of the import the tyres are from
+     * @param tyres Tyres in id order
+     */
+    public void AddTyres(int importId, List<Tyre> tyres) {
+        if (importId != currentImportId) return;
+        int firstIndex = tyreList.size();
+        tyreList.addAll(tyres);
+        for (Listener listener : new ArrayList<>(listeners)) listener.OnTyresAdded(firstIndex, tyres.size());
+    }
+
+    public void FinishImport(int importId) {
+        FinishImport(importId, true);
+    }
+
+    /**
+     * Ends an import
+     * @param importId Id of the import
+     * @param complete Whether every tyre in the file was imported, false if the import failed or was cancelled
+     */
+    public void FinishImport(int importId, boolean complete) {
+        if (importId != currentImportId || !importing) return;
+        importing = false;
+        this.complete = complete;
+        for (Listener listener : new ArrayList<>(listeners)) listener.OnImportFinished();
+    }
+
+    /**
+     * Starts merging a newer file into the list, see FinishMerge
+     * @return Id of the list being merged into. A merge finished after the list was replaced is ignored.
+     */
+    public int StartMerge() {
+        merging = true;
+        return currentImportId;
+    }
+
+    /**
+     * Merges the tyres of a newer file into the list, see TyreMerge
+     * @param importId Id returned by StartMerge
+     * @param importedTyres Tyres of the newer file, or null if it could not be imported
+     */
+    public void FinishMerge(int importId, List<Tyre> importedTyres) {
+        if (importId != currentImportId || !merging) return;
+        merging = false;
+        TyreMerge.Result result = importedTyres != null ? TyreMerge.Merge(tyreList, importedTyres) : null;
+        for (Listener listener : new ArrayList<>(listeners)) listener.OnMergeFinished(result);
+    }
+
+    /**
+     * @return Whether tyres are still being added to the list by an import
+     */
+    public boolean IsImporting() {
+        return importing;
+    }
+
+    /**
+     * @return Whether every tyre in the file is in the list, so new ids and printed lists can rely on it
+     */
+    public boolean IsComplete() {
+        return !importing && complete;
+    }
+
+    /**
+     * @return Whether a newer file is being merged into the list
+     */
+    public boolean IsMerging() {
+        return merging;
+    }
+
+    public void AddListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void RemoveListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
 }
@@ -2,6 +2,7 @@ package com.example.stockcheck.storage;
 
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
+import com.example.stockcheck.model.Tyre;
 import com.example.stockcheck.model.TyreComment;
 
 @Entity
@@ -19,4 +20,26 @@ public class StoredTyre {
     public boolean isEdited;
     public boolean isAdded;
     public boolean isDone;
+
+    public static StoredTyre From(Tyre tyre) {
+        StoredTyre storedTyre = new StoredTyre();
+        storedTyre.id = tyre.GetId();
+        storedTyre.part = tyre.GetPartComment();
+        storedTyre.supplierPartCode = tyre.GetSupplierPartCodeComment();
+        storedTyre.description = tyre.GetDescriptionComment();
+        storedTyre.location = tyre.GetLocationComment();
+        storedTyre.seen = tyre.GetSeen();
+        storedTyre.lastSoldDateString = tyre.GetLastSoldDate(true);
+        storedTyre.lastSoldDateChanged = tyre.IsLastSoldDateChanged();
+        storedTyre.extraComment = tyre.GetComment(true);
+        storedTyre.isEdited = tyre.IsEdited();
+        storedTyre.isAdded = tyre.IsAdded();
+        storedTyre.isDone = tyre.isDone;
+        return storedTyre;
+    }
+
+    public void ApplyTo(Tyre tyre) {
+        tyre.Restore(part, supplierPartCode, description, location, seen, lastSoldDateString, lastSoldDateChanged,
+                extraComment, isEdited, isAdded, isDone);
+    }
 }
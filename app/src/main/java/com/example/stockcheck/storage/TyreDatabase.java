@@ -1,18 +1,25 @@
 package com.example.stockcheck.storage;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverter;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.stockcheck.model.TyreComment;
 
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-@Database(entities = {StoredTyre.class, MetaData.class}, version = 1, exportSchema = false)
+@Database(entities = {StoredTyre.class, MetaData.class}, version = 2, exportSchema = false)
 @TypeConverters({Converters.class})
 public abstract class TyreDatabase extends RoomDatabase {
     public abstract StoredTyreDao storedTyreDao();
@@ -22,11 +29,50 @@ public abstract class TyreDatabase extends RoomDatabase {
     public static final ExecutorService databaseWriteExecutor =
             Executors.newFixedThreadPool(NUMBER_OF_THREADS);
 
+    private static final String[] COMMENT_COLUMNS = {"part", "supplierPartCode", "description", "location"};
+
+    /**
+     * Version 1 stored comments as text, version 2 stores them as binary blobs. SQLite can't change a column's type,
+     * so the table is copied into a new one, converting each comment.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `StoredTyre_new` (`id` INTEGER NOT NULL, `part` BLOB, "
+                    + "`supplierPartCode` BLOB, `description` BLOB, `location` BLOB, `seen` TEXT, "
+                    + "`lastSoldDateString` TEXT, `lastSoldDateChanged` INTEGER NOT NULL, `extraComment` TEXT, "
+                    + "`isEdited` INTEGER NOT NULL, `isAdded` INTEGER NOT NULL, `isDone` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            try (Cursor cursor = database.query("SELECT * FROM `StoredTyre`")) {
+                ContentValues values = new ContentValues();
+                while (cursor.moveToNext()) {
+                    values.clear();
+                    for (int i = 0; i < cursor.getColumnCount(); i++) {
+                        String column = cursor.getColumnName(i);
+                        if (cursor.isNull(i)) {
+                            values.putNull(column);
+                        } else if (Arrays.asList(COMMENT_COLUMNS).contains(column)) {
+                            values.put(column, Converters.serialiseTyreComment(Converters.deserialiseTyreCommentText(cursor.getString(i))));
+                        } else if (cursor.getType(i) == Cursor.FIELD_TYPE_INTEGER) {
+                            values.put(column, cursor.getLong(i));
+                        } else {
+                            values.put(column, cursor.getString(i));
+                        }
+                    }
+                    database.insert("StoredTyre_new", SQLiteDatabase.CONFLICT_REPLACE, values);
+                }
+            }
+            database.execSQL("DROP TABLE `StoredTyre`");
+            database.execSQL("ALTER TABLE `StoredTyre_new` RENAME TO `StoredTyre`");
+        }
+    };
+
     public static TyreDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (TyreDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(), TyreDatabase.class, "tyre_database").build();
+                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(), TyreDatabase.class, "tyre_database")
+                            .addMigrations(MIGRATION_1_2)
+                            .build();
                 }
             }
         }
@@ -36,15 +82,24 @@ public abstract class TyreDatabase extends RoomDatabase {
 
 class Converters {
     @TypeConverter
-    public static TyreComment deserialiseTyreComment(String representation) {
+    public static TyreComment deserialiseTyreComment(byte[] representation) {
         if (representation == null) return null;
         TyreComment newComment = new TyreComment("");
-        newComment.Deserialise(representation);
+        newComment.Decode(representation);
         return newComment;
     }
 
     @TypeConverter
-    public static String serialiseTyreComment(TyreComment comment) {
-        return comment == null ? null : comment.GetSerialised();
+    public static byte[] serialiseTyreComment(TyreComment comment) {
+        return comment == null ? null : comment.GetEncoded();
+    }
+
+    /**
+     * Reads a comment stored as text by version 1 of the database
+     */
+    static TyreComment deserialiseTyreCommentText(String representation) {
+        TyreComment newComment = new TyreComment("");
+        newComment.Deserialise(representation);
+        return newComment;
     }
 }
@@ -0,0 +1,53 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.model.Tyre;
+import com.example.stockcheck.model.TyreContainer;
+import org.junit.Test;
+import java.util.Collections;
+
+public class TyreContainerUnitTests {
+
+    @Test
+    public void Container_Ignores_Batches_From_Earlier_Import() {
+        TyreContainer container = TyreContainer.getInstance();
+        Tyre tyre = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        int earlierImportId = container.StartImport();
+        int importId = container.StartImport();
+        container.AddTyres(earlierImportId, Collections.singletonList(tyre));
+        container.AddTyres(importId, Collections.singletonList(tyre));
+        container.FinishImport(earlierImportId);
+        assertEquals(1, container.GetTyreList().size());
+        assertTrue(container.IsImporting());
+        container.FinishImport(importId);
+        assertFalse(container.IsImporting());
+    }
+
+    @Test
+    public void Container_Completeness_Comes_From_Import_Not_Merges() {
+        TyreContainer container = TyreContainer.getInstance();
+        int importId = container.StartImport();
+        assertFalse(container.IsComplete());
+        container.AddTyres(importId, Collections.singletonList(new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false)));
+        container.FinishImport(importId);
+        assertTrue(container.IsComplete());
+        // A failed merge leaves the list complete
+        int mergeId = container.StartMerge();
+        assertTrue(container.IsMerging());
+        container.FinishMerge(mergeId, null);
+        assertFalse(container.IsMerging());
+        assertTrue(container.IsComplete());
+        mergeId = container.StartMerge();
+        container.FinishMerge(mergeId, Collections.singletonList(new Tyre(0, "1954515", "partCode", "description", "location", "2", "17/01/2023", false)));
+        assertEquals("2", container.GetTyreList().get(0).GetStock());
+        // A merge into a list that has since been replaced is ignored
+        mergeId = container.StartMerge();
+        int failedImportId = container.StartImport();
+        container.FinishMerge(mergeId, Collections.singletonList(new Tyre(0, "1954515", "partCode", "description", "location", "2", "17/01/2023", false)));
+        assertEquals(0, container.GetTyreList().size());
+        container.FinishImport(failedImportId, false);
+        assertFalse(container.IsComplete());
+    }
+}
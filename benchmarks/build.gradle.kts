@@ -0,0 +1,26 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmhImplementation(project(":core"))
+}
+
+// Run with ./gradlew :benchmarks:jmh, optionally narrowed with -Pjmh.includes=ReaderBenchmarks
+jmh {
+    jmhVersion.set(libs.versions.jmhCore)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
@@ -0,0 +1,68 @@
+package com.example.stockcheck.benchmarks;
+
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.XLSXReader;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to parse a whole export from memory with each reader, passing every kept tyre on to a sink.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class ReaderBenchmarks {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    @Param({ "0.6" })
+    public double tyreShare;
+
+    @Param({ "0.1" })
+    public double quotedShare;
+
+    private ByteBuffer csv;
+    private ByteBuffer xlsx;
+
+    @Setup(Level.Trial)
+    public void Generate() throws Exception {
+        SyntheticExport export = new SyntheticExport(rows, tyreShare, quotedShare, 1);
+        csv = ByteBuffer.wrap(export.Csv());
+        xlsx = ByteBuffer.wrap(export.Xlsx());
+    }
+
+    @Benchmark
+    public void ReadCSVSequential(Blackhole blackhole) throws Exception {
+        CSVReader.Read(csv.duplicate(), ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.SEQUENTIAL, new ImportProgress(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void ReadCSVParallel(Blackhole blackhole) throws Exception {
+        CSVReader.Read(csv.duplicate(), ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.PARALLEL, new ImportProgress(), blackhole::consume);
+    }
+
+    @Benchmark
+    public void ReadXLSX(Blackhole blackhole) throws Exception {
+        XLSXReader.Read(xlsx.duplicate(), ColumnSchema.Default(), ImportFilter.Default(), new ImportProgress(), blackhole::consume);
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.stockcheck.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates stock system exports shaped like real ones, as .csv or .xlsx data, for benchmarking the readers. Rows
+ * are a mix of tyres and other parts, with repeated descriptions, locations and categories, supplier codes that
+ * need quoting, and last sold dates. The same seed always gives the same data.
+ */
+public class SyntheticExport {
+
+    private static final String[] HEADERS = { "Part", "Supplier Part Codes", "Description", "Location", "Cost Price",
+            "Sell Price", "On Stock", "Category", "Tyre", "Models", "Engines", "Barcode", "CompanyCode", "Last Sold Date", "Sell Price 2" };
+    private static final String[] BRANDS = { "Hendrerit", "Mauris", "Quisque", "Suspendisse", "Aliquam", "Vivamus" };
+    private static final String[] LOCATIONS = { "Aliquam", "Augue", "Massa", "Luctus", "Rack 1", "Rack 2", "Rack 3", "Yard" };
+    private static final String[] OTHER_CATEGORIES = { "Parts", "Oils", "Batteries", "Labour" };
+    // Days from the spreadsheet epoch of 30/12/1899 to 01/01/2010
+    private static final int SERIAL_2010 = 40179;
+
+    private final int rows;
+    private final double tyreShare;
+    private final double quotedShare;
+    private final long seed;
+
+    /**
+     * @param rows Number of data rows, after the header
+     * @param tyreShare Share of rows that are tyres, and are kept by the default import filter
+     * @param quotedShare Share of rows with a supplier part code containing a comma, so it is quoted in .csv
+     * @param seed Seed of the random data
+     */
+    public SyntheticExport(int rows, double tyreShare, double quotedShare, long seed) {
+        this.rows = rows;
+        this.tyreShare = tyreShare;
+        this.quotedShare = quotedShare;
+        this.seed = seed;
+    }
+
+    /**
+     * Fields of one generated row, in header order
+     */
+    private static class Row {
+        String part;
+        String supplierPartCode;
+        String description;
+        String location;
+        String stock;
+        String category;
+        int lastSoldSerial;
+    }
+
+    private Row NextRow(Random random, Row row) {
+        boolean isTyre = random.nextDouble() < tyreShare;
+        int width = 155 + 10 * random.nextInt(17);
+        int profile = 30 + 5 * random.nextInt(11);
+        int rim = 13 + random.nextInt(10);
+        // Tyre part numbers start with 1 to 3, which the default filter accepts
+        row.part = isTyre ? String.valueOf(1000000 + random.nextInt(3000000)) : String.valueOf(5000000 + random.nextInt(5000000));
+        row.supplierPartCode = random.nextDouble() < quotedShare ? "SP" + random.nextInt(100000) + ", alt " + random.nextInt(1000) : "SP" + random.nextInt(100000);
+        row.description = isTyre ? width + "/" + profile + " R" + rim + " " + (80 + random.nextInt(30)) + "V " + BRANDS[random.nextInt(BRANDS.length)]
+                : "Item " + random.nextInt(500) + " " + BRANDS[random.nextInt(BRANDS.length)];
+        row.location = LOCATIONS[random.nextInt(LOCATIONS.length)];
+        row.stock = random.nextInt(10) == 0 ? (random.nextInt(20) + ".00") : String.valueOf(random.nextInt(12));
+        row.category = isTyre ? "Tyres" : OTHER_CATEGORIES[random.nextInt(OTHER_CATEGORIES.length)];
+        row.lastSoldSerial = SERIAL_2010 + random.nextInt(5000);
+        return row;
+    }
+
+    /**
+     * @return The export as UTF-8 .csv data, with dates as DD/MM/YYYY text
+     */
+    public byte[] Csv() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(rows * 96);
+        WriteCsv(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public void WriteCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        writer.write(String.join(",", HEADERS));
+        writer.write("\r\n");
+        Random random = new Random(seed);
+        Row row = new Row();
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            NextRow(random, row);
+            line.setLength(0);
+            line.append(row.part).append(',');
+            AppendCsvField(line, row.supplierPartCode).append(',');
+            AppendCsvField(line, row.description).append(',');
+            AppendCsvField(line, row.location).append(",,,");
+            line.append(row.stock).append(',').append(row.category).append(",,,,,,");
+            LocalDate date = LocalDate.of(1899, 12, 30).plusDays(row.lastSoldSerial);
+            line.append(String.format("%02d/%02d/%04d", date.getDayOfMonth(), date.getMonthValue(), date.getYear())).append(",\r\n");
+            writer.write(line.toString());
+        }
+        writer.flush();
+    }
+
+    private static StringBuilder AppendCsvField(StringBuilder line, String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0) return line.append(field);
+        return line.append('"').append(field.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * @return The export as .xlsx data, with repeated text in shared strings and dates as serials with a date style
+     */
+    public byte[] Xlsx() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(rows * 32);
+        WriteXlsx(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    public void WriteXlsx(OutputStream outputStream) throws IOException {
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            Writer writer = new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8);
+            PutEntry(zipOutputStream, writer, "_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            PutEntry(zipOutputStream, writer, "xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"Stock\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+            PutEntry(zipOutputStream, writer, "xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+                    + "<Relationship Id=\"rId3\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+                    + "</Relationships>");
+            PutEntry(zipOutputStream, writer, "xl/styles.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"dd/mm/yyyy;@\"/></numFmts>"
+                    + "<cellXfs count=\"3\"><xf numFmtId=\"0\"/><xf numFmtId=\"14\" applyNumberFormat=\"1\"/><xf numFmtId=\"164\" applyNumberFormat=\"1\"/></cellXfs></styleSheet>");
+
+            // Shared strings hold the headers, then every location, brand description and category once, like Excel
+            StringTable strings = new StringTable();
+            for (String header : HEADERS) strings.Index(header);
+            zipOutputStream.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData><row r=\"1\">");
+            for (int column = 0; column < HEADERS.length; column++) {
+                writer.write("<c r=\"" + ColumnName(column) + "1\" t=\"s\"><v>" + column + "</v></c>");
+            }
+            writer.write("</row>");
+            Random random = new Random(seed);
+            Row row = new Row();
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < rows; i++) {
+                NextRow(random, row);
+                int r = i + 2;
+                line.setLength(0);
+                line.append("<row r=\"").append(r).append("\">");
+                line.append("<c r=\"A").append(r).append("\"><v>").append(row.part).append("</v></c>");
+                line.append("<c r=\"B").append(r).append("\" t=\"inlineStr\"><is><t>").append(row.supplierPartCode).append("</t></is></c>");
+                line.append("<c r=\"C").append(r).append("\" t=\"s\"><v>").append(strings.Index(row.description)).append("</v></c>");
+                line.append("<c r=\"D").append(r).append("\" t=\"s\"><v>").append(strings.Index(row.location)).append("</v></c>");
+                line.append("<c r=\"G").append(r).append("\"><v>").append(row.stock).append("</v></c>");
+                line.append("<c r=\"H").append(r).append("\" t=\"s\"><v>").append(strings.Index(row.category)).append("</v></c>");
+                line.append("<c r=\"N").append(r).append("\" s=\"").append(1 + (i & 1)).append("\"><v>").append(row.lastSoldSerial).append("</v></c>");
+                line.append("</row>");
+                writer.write(line.toString());
+            }
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zipOutputStream.closeEntry();
+
+            zipOutputStream.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" uniqueCount=\"" + strings.GetCount() + "\">");
+            for (int i = 0; i < strings.GetCount(); i++) {
+                writer.write("<si><t>");
+                writer.write(strings.Get(i));
+                writer.write("</t></si>");
+            }
+            writer.write("</sst>");
+            writer.flush();
+            zipOutputStream.closeEntry();
+        }
+    }
+
+    private static void PutEntry(ZipOutputStream zipOutputStream, Writer writer, String name, String content) throws IOException {
+        zipOutputStream.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zipOutputStream.closeEntry();
+    }
+
+    private static String ColumnName(int column) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = column + 1; i > 0; i = (i - 1) / 26) builder.insert(0, (char) ('A' + (i - 1) % 26));
+        return builder.toString();
+    }
+
+    /**
+     * Unique strings in the order they were first seen
+     */
+    private static class StringTable {
+        private final HashMap<String, Integer> indexes = new HashMap<>();
+        private final ArrayList<String> strings = new ArrayList<>();
+
+        int Index(String s) {
+            Integer index = indexes.get(s);
+            if (index != null) return index;
+            indexes.put(s, strings.size());
+            strings.add(s);
+            return strings.size() - 1;
+        }
+
+        int GetCount() {
+            return strings.size();
+        }
+
+        String Get(int index) {
+            return strings.get(index);
+        }
+    }
+
+    /**
+     * Writes an export to a file, to try the app or the batch command on.
+     * Usage: SyntheticExport ROWS OUTPUT.csv|OUTPUT.xlsx [TYRE_SHARE] [QUOTED_SHARE] [SEED]
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = Integer.parseInt(args[0]);
+        double tyreShare = args.length > 2 ? Double.parseDouble(args[2]) : 0.6;
+        double quotedShare = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        SyntheticExport export = new SyntheticExport(rows, tyreShare, quotedShare, seed);
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1])))) {
+            if (args[1].endsWith(".xlsx")) {
+                export.WriteXlsx(outputStream);
+            } else {
+                export.WriteCsv(outputStream);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.stockcheck.benchmarks;
+
+import com.example.stockcheck.model.Tyre;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to create tyres from parsed fields, which parses part number, stock and date, and to sort them with each
+ * comparator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TyreBenchmarks {
+
+    @Param({ "10000", "100000" })
+    public int tyres;
+
+    private String[][] fields;
+    private ArrayList<Tyre> tyreList;
+
+    @Setup(Level.Trial)
+    public void Generate() {
+        Random random = new Random(1);
+        fields = new String[tyres][];
+        tyreList = new ArrayList<>(tyres);
+        for (int i = 0; i < tyres; i++) {
+            // Repeated part numbers and dates, so comparators also compare part text
+            fields[i] = new String[] {
+                    (1000000 + random.nextInt(tyres)) + (random.nextBoolean() ? ", r15" : ""),
+                    "SP" + random.nextInt(100000),
+                    "205/55 R16 91V",
+                    "Rack " + random.nextInt(10),
+                    random.nextInt(10) == 0 ? random.nextInt(20) + ".00" : String.valueOf(random.nextInt(12)),
+                    String.format("%02d/%02d/%04d", 1 + random.nextInt(28), 1 + random.nextInt(12), 2010 + random.nextInt(15))
+            };
+            tyreList.add(Create(i));
+        }
+    }
+
+    private Tyre Create(int id) {
+        String[] f = fields[id];
+        return new Tyre(id, f[0], f[1], f[2], f[3], f[4], f[5], false);
+    }
+
+    @Benchmark
+    public void CreateTyres(Blackhole blackhole) {
+        for (int i = 0; i < tyres; i++) blackhole.consume(Create(i));
+    }
+
+    @Benchmark
+    public ArrayList<Tyre> SortByPartNumber() {
+        ArrayList<Tyre> sorted = new ArrayList<>(tyreList);
+        sorted.sort(new Tyre.SortByPartNumber());
+        return sorted;
+    }
+
+    @Benchmark
+    public ArrayList<Tyre> SortByLastSoldDate() {
+        ArrayList<Tyre> sorted = new ArrayList<>(tyreList);
+        sorted.sort(new Tyre.SortByLastSoldDate());
+        return sorted;
+    }
+
+    @Benchmark
+    public ArrayList<Tyre> SortByStock() {
+        ArrayList<Tyre> sorted = new ArrayList<>(tyreList);
+        sorted.sort(new Tyre.SortByStock());
+        return sorted;
+    }
+}
@@ -0,0 +1,20 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+application {
+    mainClass.set("com.example.stockcheck.cli.BatchReport")
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
@@ -0,0 +1,218 @@
+package com.example.stockcheck.cli;
+
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.TyreSink;
+import com.example.stockcheck.filemanagement.XLSXReader;
+import com.example.stockcheck.model.CommentMarkup;
+import com.example.stockcheck.model.Tyre;
+import com.example.stockcheck.report.StockReport;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line entry point that imports many stock files in parallel, such as every branch's nightly export, and
+ * writes the stock check report of each as html, with a summary of every file.
+ * Usage: BatchReport [--out DIR] [--threads N] FILE_OR_DIRECTORY...
+ */
+public class BatchReport {
+
+    /**
+     * Result of importing one file
+     */
+    static class FileSummary {
+        final Path file;
+        // Name of the report in the output directory
+        final String reportName;
+        // Earlier file with the same name, whose report has the plain name, or null
+        Path duplicateOf;
+        long rowsSeen;
+        long tyresKept;
+        long tyresReported;
+        // Strings shared through the import's string pool, and the estimated memory that saved
+        long stringsReused;
+        long bytesSaved;
+        long millis;
+        String error;
+
+        FileSummary(Path file, String reportName) {
+            this.file = file;
+            this.reportName = reportName;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outDirectory = Paths.get("reports");
+        // Each file is parsed on one thread, so one file per core keeps the machine busy
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out":
+                    outDirectory = Paths.get(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                    break;
+                default:
+                    AddFiles(Paths.get(args[i]), files);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: BatchReport [--out DIR] [--threads N] FILE_OR_DIRECTORY...");
+            System.exit(2);
+        }
+        Files.createDirectories(outDirectory);
+
+        // Files from different directories may have the same name, so each report is given a unique name
+        Path summaryFile = UniquePath(outDirectory, "summary", ".csv", files);
+        HashMap<String, Path> firstFiles = new HashMap<>();
+        HashSet<String> usedNames = new HashSet<>();
+        usedNames.add(Key(summaryFile.getFileName().toString()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<FileSummary>> results = new ArrayList<>();
+        final Path finalOutDirectory = outDirectory;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String reportName = name + ".html";
+            for (int n = 2; !usedNames.add(Key(reportName)); n++) reportName = name + "-" + n + ".html";
+            Path duplicateOf = firstFiles.putIfAbsent(Key(name), file);
+            final String finalReportName = reportName;
+            results.add(pool.submit(() -> {
+                FileSummary summary = Report(file, finalOutDirectory.resolve(finalReportName));
+                summary.duplicateOf = duplicateOf;
+                return summary;
+            }));
+        }
+        pool.shutdown();
+
+        StringBuilder summaryCsv = new StringBuilder("File,Report,Duplicate Of,Rows,Tyres,Reported,Strings Reused,Bytes Saved,Milliseconds,Error\n");
+        boolean failed = false;
+        for (Future<FileSummary> result : results) {
+            FileSummary summary = Get(result);
+            failed |= summary.error != null;
+            System.out.println(summary.file + ": " + (summary.error != null ? "FAILED " + summary.error
+                    : summary.tyresKept + " tyres from " + summary.rowsSeen + " rows, " + summary.tyresReported + " reported") + " (" + summary.millis + " ms)");
+            summaryCsv.append(CsvField(summary.file.toString())).append(',')
+                    .append(CsvField(summary.reportName)).append(',')
+                    .append(summary.duplicateOf != null ? CsvField(summary.duplicateOf.toString()) : "").append(',')
+                    .append(summary.rowsSeen).append(',')
+                    .append(summary.tyresKept).append(',')
+                    .append(summary.tyresReported).append(',')
+                    .append(summary.stringsReused).append(',')
+                    .append(summary.bytesSaved).append(',')
+                    .append(summary.millis).append(',')
+                    .append(summary.error != null ? CsvField(summary.error) : "")
+                    .append('\n');
+        }
+        Files.write(summaryFile, summaryCsv.toString().getBytes(StandardCharsets.UTF_8));
+        if (failed) System.exit(1);
+    }
+
+    /**
+     * Gets a name compared as the file system may compare it, ignoring case
+     */
+    private static String Key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets a path in a directory that is not one of the input files, adding a number to the name if needed
+     */
+    private static Path UniquePath(Path directory, String name, String extension, List<Path> files) {
+        HashSet<Path> inputs = new HashSet<>();
+        for (Path file : files) inputs.add(file.toAbsolutePath().normalize());
+        Path path = directory.resolve(name + extension);
+        for (int n = 2; inputs.contains(path.toAbsolutePath().normalize()); n++) path = directory.resolve(name + "-" + n + extension);
+        return path;
+    }
+
+    /**
+     * Quotes a summary field if it contains a comma, quote or line break
+     */
+    private static String CsvField(String value) {
+        if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1 && value.indexOf('\r') == -1) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Adds a file, or every .csv, .xlsx, .gz and .zip file in a directory
+     */
+    private static void AddFiles(Path path, List<Path> files) throws IOException {
+        if (!Files.isDirectory(path)) {
+            files.add(path);
+            return;
+        }
+        List<Path> directoryFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.{csv,CSV,xlsx,XLSX,gz,GZ,zip,ZIP}")) {
+            for (Path file : stream) directoryFiles.add(file);
+        }
+        directoryFiles.sort(null);
+        files.addAll(directoryFiles);
+    }
+
+    /**
+     * Imports a file and writes its report. Only reported tyres are kept while reading, so memory use depends on the
+     * number of discrepancies rather than the size of the file.
+     * @param reportFile Path the html report is written to
+     * @return Summary of the file, with the error if it could not be imported
+     */
+    static FileSummary Report(Path file, Path reportFile) {
+        FileSummary summary = new FileSummary(file, reportFile.getFileName().toString());
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        ArrayList<Tyre> reported = new ArrayList<>();
+        TyreSink sink = tyre -> {
+            summary.tyresKept++;
+            if (StockReport.IsReported(tyre)) reported.add(tyre);
+        };
+        try {
+            if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+                XLSXReader.Read(file, ColumnSchema.Default(), ImportFilter.Default(), progress, sink);
+            } else {
+                // Files are already read in parallel, so each is parsed on its own thread
+                CSVReader.Read(file, ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.SEQUENTIAL, progress, sink);
+            }
+            reported.sort(new Tyre.SortByPartNumber());
+            String html = "<html>" + StockReport.Html(reported, CommentMarkup.Default(), LocalDate.now()) + "</html>";
+            Files.write(reportFile, html.getBytes(StandardCharsets.UTF_8));
+            summary.tyresReported = reported.size();
+        } catch (Exception e) {
+            summary.error = e.toString();
+        }
+        summary.rowsSeen = progress.GetRowsSeen();
+        summary.stringsReused = progress.GetStringPool().GetStringsReused();
+        summary.bytesSaved = progress.GetStringPool().GetBytesSaved();
+        summary.millis = (System.nanoTime() - start) / 1_000_000;
+        return summary;
+    }
+
+    /**
+     * Gets the result of a future, rethrowing the cause of any failure
+     */
+    private static <T> T Get(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+}
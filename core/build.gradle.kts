@@ -0,0 +1,16 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
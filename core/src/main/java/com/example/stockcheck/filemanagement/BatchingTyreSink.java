@@ -0,0 +1,45 @@
+package com.example.stockcheck.filemanagement;
+
+import com.example.stockcheck.model.Tyre;
+import java.util.ArrayList;
+
+/**
+ * Groups tyres from a reader into batches. The first batch is small, so the first screen of tyres is available
+ * quickly, and each batch after that is larger, so later tyres are handed over with little overhead.
+ */
+public class BatchingTyreSink implements TyreSink {
+
+    /**
+     * Receives each full batch, on the reader's thread
+     */
+    public interface BatchListener {
+        void OnBatch(ArrayList<Tyre> batch);
+    }
+
+    public static final int FIRST_BATCH_SIZE = 64;
+    public static final int MAX_BATCH_SIZE = 4096;
+
+    private final BatchListener listener;
+    private int batchSize = FIRST_BATCH_SIZE;
+    private ArrayList<Tyre> batch = new ArrayList<>(FIRST_BATCH_SIZE);
+
+    public BatchingTyreSink(BatchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void Add(Tyre tyre) {
+        batch.add(tyre);
+        if (batch.size() >= batchSize) Flush();
+    }
+
+    /**
+     * Hands over any tyres in the current batch. Called once the reader has finished.
+     */
+    public void Flush() {
+        if (batch.isEmpty()) return;
+        listener.OnBatch(batch);
+        batchSize = Math.min(batchSize * 2, MAX_BATCH_SIZE);
+        batch = new ArrayList<>(batchSize);
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.stockcheck.filemanagement;
+
+import com.example.stockcheck.model.Tyre;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Contains a static method to parse .csv files
+ */
+public class CSVReader {
+
+    // Tyre data array is indexed by the ColumnSchema slots, without the category
+
+    /**
+     * Whether rows are parsed on the calling thread, or split into chunks and parsed across all cores.
+     */
+    public enum Mode { SEQUENTIAL, PARALLEL }
+
+    /**
+     * Smallest amount of row data worth giving its own chunk when parsing in parallel
+     */
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Reads and parses a .csv file to get a list of tyres, in parallel if the file is large enough
+     * @param path Path of .csv file
+     * @return An ArrayList of tyres
+     * @throws Exception If file cannot be read or contains invalid categories
+     */
+    public static ArrayList<Tyre> Read(Path path) throws Exception {
+        return Read(path, ImportFilter.Default(), Mode.PARALLEL);
+    }
+
+    /**
+     * Reads and parses a .csv file to get a list of the rows accepted by a filter
+     * @param path Path of .csv file
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @return An ArrayList of tyres
+     * @throws Exception If file cannot be read or contains invalid categories
+     */
+    public static ArrayList<Tyre> Read(Path path, ImportFilter filter, Mode mode) throws Exception {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        Read(path, ColumnSchema.Default(), filter, mode, new ImportProgress(), tyreList::add);
+        return tyreList;
+    }
+
+    /**
+     * Reads and parses a memory-mapped .csv file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param path Path of .csv file
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If file cannot be read or contains invalid categories, or the import is cancelled
+     */
+    public static void Read(Path path, ColumnSchema schema, ImportFilter filter, Mode mode, ImportProgress progress, TyreSink sink) throws Exception {
+        try {
+            ByteBuffer buffer = MappedFile.Map(path);
+            progress.SetTotalBytes(buffer.limit());
+            Read(buffer, schema, filter, mode, progress, sink);
+        } catch (Exception e) {
+            System.out.println(e.toString());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads and parses .csv data to get a list of tyres, on the calling thread
+     * @param inputStream Stream of UTF-8 .csv data
+     * @return An ArrayList of tyres
+     * @throws Exception If data cannot be read
+     */
+    public static ArrayList<Tyre> Read(InputStream inputStream) throws Exception {
+        return Read(inputStream, ImportFilter.Default(), Mode.SEQUENTIAL);
+    }
+
+    /**
+     * Reads and parses .csv data to get a list of the rows accepted by a filter
+     * @param inputStream Stream of UTF-8 .csv data
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @return An ArrayList of tyres
+     * @throws Exception If data cannot be read
+     */
+    public static ArrayList<Tyre> Read(InputStream inputStream, ImportFilter filter, Mode mode) throws Exception {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        Read(inputStream, ColumnSchema.Default(), filter, mode, new ImportProgress(), tyreList::add);
+        return tyreList;
+    }
+
+    /**
+     * Reads and parses .csv data, passing each row accepted by a filter to a sink as soon as it is parsed. Data
+     * compressed as .csv.gz, or as a zip holding a .csv file, is recognised by its first bytes and inflated as it is
+     * parsed, in either mode.
+     * @param inputStream Stream of UTF-8 .csv data, which may be compressed
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If data cannot be read, or the import is cancelled
+     */
+    public static void Read(InputStream inputStream, ColumnSchema schema, ImportFilter filter, Mode mode, ImportProgress progress, TyreSink sink) throws Exception {
+        PushbackInputStream countedStream = new PushbackInputStream(new ProgressInputStream(inputStream, progress), CompressedInput.MAGIC_LENGTH);
+        byte[] head = new byte[CompressedInput.MAGIC_LENGTH];
+        int headLength = 0;
+        int count;
+        while (headLength < head.length && (count = countedStream.read(head, headLength, head.length - headLength)) != -1) headLength += count;
+        countedStream.unread(head, 0, headLength);
+        CompressedInput.Format format = CompressedInput.Detect(head, headLength);
+        if (format != CompressedInput.Format.NONE) {
+            ReadCompressed(countedStream, format, schema, filter, progress, sink);
+            return;
+        }
+        if (mode == Mode.PARALLEL) {
+            // Chunks need random access to the data, so read it all into memory, counting bytes as they are read
+            Read(ByteBuffer.wrap(ReadAllBytes(countedStream, progress)), schema, filter, mode, progress, false, sink);
+            return;
+        }
+        ReadStream(countedStream, schema, filter, progress, sink);
+    }
+
+    /**
+     * Reads and parses a .csv.gz file, or a zip holding a .csv file. The data is inflated on a second thread while
+     * its rows are parsed on the calling thread as they arrive, so the whole file is never held in memory. Bytes
+     * read counts the compressed data.
+     * @param compressed Stream of the compressed file, counting bytes read to the progress
+     */
+    private static void ReadCompressed(InputStream compressed, CompressedInput.Format format, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        try (InputStream uncompressed = new ReadAheadInputStream(CompressedInput.Open(compressed, format))) {
+            ReadStream(uncompressed, schema, filter, progress, sink);
+        }
+    }
+
+    /**
+     * Parses .csv data on the calling thread as it is read, passing each row accepted by a filter to a sink
+     * @param countedStream Stream of UTF-8 .csv data, which already counts bytes read to the progress
+     */
+    private static void ReadStream(InputStream countedStream, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        int tyresAdded = 0;
+        CSVTokenizer tokenizer = new CSVTokenizer(countedStream);
+        if (!tokenizer.NextRow()) return;
+        ColumnSchema.Layout layout = schema.MapHeader(ReadHeader(tokenizer));
+        boolean hasRow;
+        if (!layout.IsFromHeader()) {
+            // No category headers found, use fallback order and parse first row as data
+            hasRow = true;
+            progress.AddRowsSeen(1);
+        } else {
+            hasRow = NextRow(tokenizer, progress, false);
+        }
+        while (hasRow) {
+            String[] stockEntryData = ReadTyreRow(tokenizer, layout, filter);
+            if (stockEntryData != null) {
+                sink.Add(CreateTyre(tyresAdded, stockEntryData, progress.GetStringPool()));
+                tyresAdded++;
+            }
+            hasRow = NextRow(tokenizer, progress, false);
+        }
+    }
+
+    /**
+     * Reads and parses .csv data held in memory, such as a memory-mapped file, to get a list of the rows accepted
+     * by a filter.
+     * @param buffer Buffer of UTF-8 .csv data, from index 0 to its limit
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @return An ArrayList of tyres
+     * @throws Exception If data cannot be read
+     */
+    public static ArrayList<Tyre> Read(ByteBuffer buffer, ImportFilter filter, Mode mode) throws Exception {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        Read(buffer, ColumnSchema.Default(), filter, mode, new ImportProgress(), tyreList::add);
+        return tyreList;
+    }
+
+    /**
+     * Reads and parses .csv data held in memory, passing each row accepted by a filter to a sink. In parallel mode,
+     * the rows after the header are split into chunks that end on row boundaries, and the chunks are parsed on the
+     * common ForkJoin pool. Each chunk's tyres are passed on as soon as it and every chunk before it are done, so
+     * tyre ids are in file order in either mode. Compressed data is inflated on a second thread and parsed as a
+     * stream instead.
+     * @param buffer Buffer of UTF-8 .csv data, which may be compressed, from index 0 to its limit
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param mode Whether to parse sequentially or in parallel
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If data cannot be read, or the import is cancelled
+     */
+    public static void Read(ByteBuffer buffer, ColumnSchema schema, ImportFilter filter, Mode mode, ImportProgress progress, TyreSink sink) throws Exception {
+        CompressedInput.Format format = CompressedInput.Detect(buffer);
+        if (format != CompressedInput.Format.NONE) {
+            ByteBuffer whole = buffer.duplicate();
+            whole.position(0);
+            ReadCompressed(new ProgressInputStream(new ByteBufferInputStream(whole), progress), format, schema, filter, progress, sink);
+            return;
+        }
+        Read(buffer, schema, filter, mode, progress, true, sink);
+    }
+
+    /**
+     * @param countBytes Whether to count the bytes parsed as bytes read, which is false if they were already counted
+     *                   while reading them into the buffer
+     */
+    private static void Read(ByteBuffer buffer, ColumnSchema schema, ImportFilter filter, Mode mode, ImportProgress progress, boolean countBytes, TyreSink sink) throws Exception {
+        int end = buffer.limit();
+        // Map category positions from the first row
+        CSVTokenizer headerTokenizer = new CSVTokenizer(buffer, 0, end);
+        if (!headerTokenizer.NextRow()) return;
+        ColumnSchema.Layout layout = schema.MapHeader(ReadHeader(headerTokenizer));
+        // Without category headers, the first row is parsed as data
+        int dataStart = layout.IsFromHeader() ? headerTokenizer.GetPosition() : 0;
+        if (countBytes) progress.AddBytesRead(dataStart);
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkCount = mode == Mode.PARALLEL ? Math.min(pool.getParallelism() * 4, (end - dataStart) / MIN_CHUNK_SIZE) : 1;
+        if (chunkCount <= 1) {
+            ReadRange(buffer, dataStart, end, layout, filter, progress, countBytes, sink);
+            return;
+        }
+        int[] chunkStarts = FindChunkStarts(pool, buffer, dataStart, end, chunkCount);
+
+        // Parse each chunk to the rows that are tyres
+        List<Future<ArrayList<String[]>>> parsedChunks = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            final int chunkStart = chunkStarts[i];
+            final int chunkEnd = chunkStarts[i + 1];
+            parsedChunks.add(pool.submit(() -> {
+                ArrayList<String[]> rows = new ArrayList<>();
+                CSVTokenizer tokenizer = new CSVTokenizer(buffer, chunkStart, chunkEnd);
+                while (NextRow(tokenizer, progress, countBytes)) {
+                    String[] stockEntryData = ReadTyreRow(tokenizer, layout, filter);
+                    if (stockEntryData != null) rows.add(stockEntryData);
+                }
+                return rows;
+            }));
+        }
+
+        // Create each chunk's tyres once its rows are known, with ids offset by the number of tyres in earlier chunks,
+        // passing on finished chunks in order while later chunks are still parsing
+        List<Future<Tyre[]>> createdChunks = new ArrayList<>();
+        int chunksPassed = 0;
+        int firstId = 0;
+        try {
+            for (Future<ArrayList<String[]>> parsedChunk : parsedChunks) {
+                ArrayList<String[]> rows = Get(parsedChunk);
+                final int chunkFirstId = firstId;
+                createdChunks.add(pool.submit(() -> {
+                    Tyre[] tyres = new Tyre[rows.size()];
+                    for (int i = 0; i < rows.size(); i++) tyres[i] = CreateTyre(chunkFirstId + i, rows.get(i), progress.GetStringPool());
+                    return tyres;
+                }));
+                firstId += rows.size();
+                while (chunksPassed < createdChunks.size() && createdChunks.get(chunksPassed).isDone()) {
+                    for (Tyre tyre : Get(createdChunks.get(chunksPassed++))) sink.Add(tyre);
+                }
+            }
+            while (chunksPassed < createdChunks.size()) {
+                for (Tyre tyre : Get(createdChunks.get(chunksPassed++))) sink.Add(tyre);
+            }
+        } finally {
+            // Stop any remaining work if a chunk or the sink failed
+            for (Future<?> parsedChunk : parsedChunks) parsedChunk.cancel(false);
+            for (Future<?> createdChunk : createdChunks) createdChunk.cancel(false);
+        }
+    }
+
+    /**
+     * Splits a range of .csv data into chunks of roughly equal size that each start at the beginning of a row.
+     * Whether a split point is inside quotes is found from the number of quotes before it, which is counted for
+     * each chunk in parallel, so line breaks inside quoted fields are never used as chunk boundaries.
+     * @return Array of chunkCount + 1 indexes, the start of each chunk followed by the end of the range
+     */
+    private static int[] FindChunkStarts(ForkJoinPool pool, ByteBuffer buffer, int start, int end, int chunkCount) throws Exception {
+        int chunkSize = (end - start) / chunkCount;
+        int[] roughStarts = new int[chunkCount + 1];
+        for (int i = 0; i < chunkCount; i++) roughStarts[i] = start + i * chunkSize;
+        roughStarts[chunkCount] = end;
+        // Count quote parity of each rough chunk
+        List<Callable<Boolean>> parityTasks = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            final int from = roughStarts[i];
+            final int to = roughStarts[i + 1];
+            parityTasks.add(() -> {
+                boolean odd = false;
+                for (int b = from; b < to; b++) if (buffer.get(b) == '"') odd = !odd;
+                return odd;
+            });
+        }
+        List<Boolean> parities = GetAll(pool.invokeAll(parityTasks));
+        // Move each rough start forward to the first row start that is not inside quotes
+        int[] chunkStarts = new int[chunkCount + 1];
+        chunkStarts[0] = start;
+        chunkStarts[chunkCount] = end;
+        boolean inQuotes = false;
+        for (int i = 1; i < chunkCount; i++) {
+            inQuotes ^= parities.get(i - 1);
+            int b = roughStarts[i];
+            boolean quoted = inQuotes;
+            while (b < end) {
+                byte c = buffer.get(b++);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (c == '\n' || c == '\r')) {
+                    if (c == '\r' && b < end && buffer.get(b) == '\n') b++;
+                    break;
+                }
+            }
+            chunkStarts[i] = Math.max(b, chunkStarts[i - 1]);
+        }
+        return chunkStarts;
+    }
+
+    private static void ReadRange(ByteBuffer buffer, int start, int end, ColumnSchema.Layout layout, ImportFilter filter, ImportProgress progress, boolean countBytes, TyreSink sink) throws IOException, ImportException {
+        int tyresAdded = 0;
+        CSVTokenizer tokenizer = new CSVTokenizer(buffer, start, end);
+        while (NextRow(tokenizer, progress, countBytes)) {
+            String[] stockEntryData = ReadTyreRow(tokenizer, layout, filter);
+            if (stockEntryData != null) sink.Add(CreateTyre(tyresAdded++, stockEntryData, progress.GetStringPool()));
+        }
+    }
+
+    /**
+     * Moves a tokenizer to its next row, stopping if the import was cancelled, and counting the row as seen
+     * @param countBytes Whether to count the bytes the row took up as read, for tokenizers over a buffer
+     * @return Whether there was another row
+     */
+    private static boolean NextRow(CSVTokenizer tokenizer, ImportProgress progress, boolean countBytes) throws IOException, ImportException {
+        progress.ThrowIfCancelled();
+        int previousPosition = tokenizer.GetPosition();
+        boolean hasRow = tokenizer.NextRow();
+        if (countBytes) progress.AddBytesRead(tokenizer.GetPosition() - previousPosition);
+        if (hasRow) progress.AddRowsSeen(1);
+        return hasRow;
+    }
+
+    /**
+     * @return Text of each field in the tokenizer's current row
+     */
+    private static String[] ReadHeader(CSVTokenizer tokenizer) {
+        String[] headers = new String[tokenizer.GetFieldCount()];
+        for (int i = 0; i < headers.length; i++) headers[i] = tokenizer.GetField(i);
+        return headers;
+    }
+
+    /**
+     * Checks the current row passes the filter before creating any strings for it
+     * @return The tyre data array without the category, or null if the row is rejected
+     */
+    private static String[] ReadTyreRow(CSVTokenizer tokenizer, ColumnSchema.Layout layout, ImportFilter filter) {
+        if (!filter.Accepts(tokenizer, layout.GetColumn(ColumnSchema.CATEGORY), layout.GetColumn(ColumnSchema.PART))) return null;
+        String[] stockEntryData = new String[ColumnSchema.CATEGORY];
+        for (int slot = 0; slot < ColumnSchema.CATEGORY; slot++) stockEntryData[slot] = tokenizer.GetField(layout.GetColumn(slot));
+        return stockEntryData;
+    }
+
+    /**
+     * Creates a tyre, sharing repeated field text through the import's string pool. Part is left out of the pool, as
+     * part numbers are unique.
+     */
+    private static Tyre CreateTyre(int id, String[] stockEntryData, StringPool pool) {
+        String stock = pool.Get(stockEntryData[4]);
+        return new Tyre(id, stockEntryData[0], pool.Get(stockEntryData[1]), pool.Get(stockEntryData[2]), pool.Get(stockEntryData[3]), stock, pool.GetWholeStock(stock), pool.Get(stockEntryData[5]), false);
+    }
+
+    /**
+     * Gets the results of finished tasks, rethrowing the exception of any that failed
+     */
+    private static <T> List<T> GetAll(List<Future<T>> futures) throws Exception {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) results.add(Get(future));
+        return results;
+    }
+
+    /**
+     * Waits for the result of a task, rethrowing its exception if it failed
+     */
+    private static <T> T Get(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+
+    private static byte[] ReadAllBytes(InputStream inputStream, ImportProgress progress) throws IOException, ImportException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(1024 * 1024);
+        byte[] readBuffer = new byte[64 * 1024];
+        int read;
+        while ((read = inputStream.read(readBuffer)) != -1) {
+            progress.ThrowIfCancelled();
+            outputStream.write(readBuffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming .csv tokenizer that scans UTF-8 bytes in a reusable buffer and records the start and end offsets of
+ * each field in the current row. Fields are only turned into Strings when asked for, and quoted fields follow
+ * RFC-4180, so a doubled quote inside quotes is read as one quote character.
+ */
+public class CSVTokenizer {
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream inputStream;
+    private ByteBuffer buffer;
+    /**
+     * Index one past the last valid byte in the buffer
+     */
+    private int limit;
+    /**
+     * Index of the first byte of the next row to scan
+     */
+    private int position;
+    private boolean endOfInput;
+    private int fieldCount = 0;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private boolean[] fieldQuoted = new boolean[16];
+    /**
+     * Reusable array used to copy or unescape field bytes
+     */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructor that tokenizes a stream, refilling an internal buffer as rows are read.
+     * @param inputStream Stream of UTF-8 .csv data
+     */
+    public CSVTokenizer(InputStream inputStream) throws IOException {
+        this.inputStream = inputStream;
+        this.buffer = ByteBuffer.wrap(new byte[INITIAL_BUFFER_SIZE]);
+        this.limit = 0;
+        this.position = 0;
+        this.endOfInput = false;
+        Fill();
+        SkipBOM();
+    }
+
+    /**
+     * Constructor that tokenizes a range of an existing buffer in place, without copying it.
+     * @param buffer Buffer of UTF-8 .csv data
+     * @param start Index of the first byte to tokenize
+     * @param end Index one past the last byte to tokenize
+     */
+    public CSVTokenizer(ByteBuffer buffer, int start, int end) {
+        this.inputStream = null;
+        this.buffer = buffer;
+        this.limit = end;
+        this.position = start;
+        this.endOfInput = true;
+        SkipBOM();
+    }
+
+    /**
+     * Advances to the next non-blank row.
+     * @return Whether a row was read, false at the end of the input
+     */
+    public boolean NextRow() throws IOException {
+        while (true) {
+            if (ScanRow() == -1) {
+                // Row continues past the buffered data, read more and scan it again
+                Refill();
+                continue;
+            }
+            if (fieldCount == 0) return false;
+            // Skip blank lines
+            if (fieldCount == 1 && fieldStarts[0] == fieldEnds[0] && !fieldQuoted[0]) continue;
+            return true;
+        }
+    }
+
+    /**
+     * @return Index of the first byte after the current row
+     */
+    public int GetPosition() {
+        return position;
+    }
+
+    /**
+     * @return Number of fields in the current row
+     */
+    public int GetFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Gets a field of the current row as a String.
+     * @param index Field index
+     * @return Field text, or an empty string if the row has no such field
+     */
+    public String GetField(int index) {
+        if (index < 0 || index >= fieldCount) return "";
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        if (start == end) return "";
+        if (fieldQuoted[index]) {
+            int length = Unescape(index);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        EnsureScratch(end - start);
+        for (int i = start; i < end; i++) scratch[i - start] = buffer.get(i);
+        return new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks whether a field of the current row equals some UTF-8 bytes, without creating a String.
+     * @param index Field index
+     * @param value UTF-8 bytes to compare with
+     * @return Whether the field equals the value
+     */
+    public boolean FieldEquals(int index, byte[] value) {
+        if (index < 0 || index >= fieldCount) return value.length == 0;
+        if (fieldQuoted[index]) {
+            int length = Unescape(index);
+            if (length != value.length) return false;
+            for (int i = 0; i < length; i++) if (scratch[i] != value[i]) return false;
+            return true;
+        }
+        int start = fieldStarts[index];
+        if (fieldEnds[index] - start != value.length) return false;
+        for (int i = 0; i < value.length; i++) if (buffer.get(start + i) != value[i]) return false;
+        return true;
+    }
+
+    /**
+     * Checks whether a field of the current row starts with some UTF-8 bytes, without creating a String.
+     * @param index Field index
+     * @param prefix UTF-8 bytes to compare with
+     * @return Whether the field starts with the prefix
+     */
+    public boolean FieldStartsWith(int index, byte[] prefix) {
+        if (index < 0 || index >= fieldCount) return prefix.length == 0;
+        if (fieldQuoted[index]) {
+            int length = Unescape(index);
+            if (length < prefix.length) return false;
+            for (int i = 0; i < prefix.length; i++) if (scratch[i] != prefix[i]) return false;
+            return true;
+        }
+        int start = fieldStarts[index];
+        if (fieldEnds[index] - start < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) if (buffer.get(start + i) != prefix[i]) return false;
+        return true;
+    }
+
+    /**
+     * Gets the first byte of a field of the current row, without creating a String.
+     * @param index Field index
+     * @return First byte as a value from 0 to 255, or -1 if the field is empty
+     */
+    public int FieldFirstByte(int index) {
+        if (index < 0 || index >= fieldCount) return -1;
+        if (fieldQuoted[index]) {
+            return Unescape(index) > 0 ? scratch[0] & 0xFF : -1;
+        }
+        return fieldStarts[index] < fieldEnds[index] ? buffer.get(fieldStarts[index]) & 0xFF : -1;
+    }
+
+    /**
+     * Scans one row from the current position, recording field offsets.
+     * @return Index the row ended at, or -1 if more data needs to be read first
+     */
+    private int ScanRow() {
+        fieldCount = 0;
+        int i = position;
+        if (i >= limit) {
+            return endOfInput ? i : -1;
+        }
+        int fieldStart = i;
+        boolean inQuotes = false;
+        boolean quoted = false;
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+                quoted = true;
+            } else if (!inQuotes) {
+                if (b == ',') {
+                    AddField(fieldStart, i, quoted);
+                    fieldStart = i + 1;
+                    quoted = false;
+                } else if (b == '\n' || b == '\r') {
+                    if (b == '\r' && i + 1 >= limit && !endOfInput) {
+                        // Cannot yet tell whether this is a \r\n pair
+                        fieldCount = 0;
+                        return -1;
+                    }
+                    AddField(fieldStart, i, quoted);
+                    position = (b == '\r' && i + 1 < limit && buffer.get(i + 1) == '\n') ? i + 2 : i + 1;
+                    return i;
+                }
+            }
+            i++;
+        }
+        if (!endOfInput) {
+            fieldCount = 0;
+            return -1;
+        }
+        // Last row has no line ending
+        AddField(fieldStart, i, quoted);
+        position = i;
+        return i;
+    }
+
+    private void AddField(int start, int end, boolean quoted) {
+        if (fieldCount == fieldStarts.length) {
+            int newLength = fieldStarts.length * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, newLength);
+            fieldEnds = Arrays.copyOf(fieldEnds, newLength);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, newLength);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldCount++;
+    }
+
+    /**
+     * Copies a quoted field into the scratch array, removing quotes and replacing doubled quotes with one quote.
+     * @param index Field index
+     * @return Number of bytes written to the scratch array
+     */
+    private int Unescape(int index) {
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        EnsureScratch(end - start);
+        int length = 0;
+        boolean inQuotes = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                if (inQuotes && i + 1 < end && buffer.get(i + 1) == '"') {
+                    scratch[length++] = '"';
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                }
+            } else {
+                scratch[length++] = b;
+            }
+        }
+        return length;
+    }
+
+    private void EnsureScratch(int length) {
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+
+    /**
+     * Moves the unscanned bytes to the start of the buffer, growing it if a single row fills it, and reads more data.
+     */
+    private void Refill() throws IOException {
+        byte[] array = buffer.array();
+        int remaining = limit - position;
+        if (position == 0 && limit == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+            buffer = ByteBuffer.wrap(array);
+        } else if (remaining > 0) {
+            System.arraycopy(array, position, array, 0, remaining);
+        }
+        limit = remaining;
+        position = 0;
+        Fill();
+    }
+
+    /**
+     * Reads from the stream until the buffer is full or the stream ends.
+     */
+    private void Fill() throws IOException {
+        byte[] array = buffer.array();
+        while (limit < array.length) {
+            int read = inputStream.read(array, limit, array.length - limit);
+            if (read == -1) {
+                endOfInput = true;
+                return;
+            }
+            limit += read;
+        }
+    }
+
+    /**
+     * Skips the UTF-8 BOM, if it appears
+     */
+    private void SkipBOM() {
+        if (limit - position >= 3 && buffer.get(position) == (byte) 0xEF && buffer.get(position + 1) == (byte) 0xBB && buffer.get(position + 2) == (byte) 0xBF) {
+            position += 3;
+        }
+    }
+}
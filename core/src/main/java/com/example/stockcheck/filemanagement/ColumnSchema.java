@@ -0,0 +1,182 @@
+package com.example.stockcheck.filemanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Describes which columns of an imported file hold each tyre field, shared by all readers. Each field (slot) has
+ * a list of header names it may appear under, and a fallback column used when a file has no header row.
+ * A file's header row is turned into a Layout once, so readers find a cell's slot, or a slot's column, by reading
+ * an array.
+ */
+public class ColumnSchema {
+
+    // Tyre data slots, also the order of the tyre data array
+    public static final int PART = 0;
+    public static final int SUPPLIER_PART_CODES = 1;
+    public static final int DESCRIPTION = 2;
+    public static final int LOCATION = 3;
+    public static final int STOCK = 4;
+    public static final int LAST_SOLD_DATE = 5;
+    public static final int CATEGORY = 6;
+    public static final int SLOT_COUNT = 7;
+
+    /**
+     * Column positions of each slot in one file
+     */
+    public static class Layout {
+
+        private final int[] slotColumns;
+        private final int[] columnSlots;
+        private final boolean fromHeader;
+
+        private Layout(int[] slotColumns, boolean fromHeader) {
+            this.slotColumns = slotColumns;
+            this.fromHeader = fromHeader;
+            int columnCount = 0;
+            for (int column : slotColumns) columnCount = Math.max(columnCount, column + 1);
+            columnSlots = new int[columnCount];
+            Arrays.fill(columnSlots, -1);
+            for (int slot = 0; slot < slotColumns.length; slot++) columnSlots[slotColumns[slot]] = slot;
+        }
+
+        /**
+         * @return Index of the column holding a slot
+         */
+        public int GetColumn(int slot) {
+            return slotColumns[slot];
+        }
+
+        /**
+         * @return Slot held by a column, or -1 if the column is not used
+         */
+        public int GetSlot(int column) {
+            return column < columnSlots.length ? columnSlots[column] : -1;
+        }
+
+        /**
+         * @return Whether the layout was read from a header row, rather than being the fallback for a file without
+         * one, in which case the first row is data
+         */
+        public boolean IsFromHeader() {
+            return fromHeader;
+        }
+    }
+
+    private final String[][] slotHeaders;
+    private final Map<String, Integer> headerSlots = new HashMap<>();
+    private final Layout fallbackLayout;
+
+    /**
+     * Constructor taking the header names and fallback column of each slot
+     * @param slotHeaders Header names each slot may appear under, indexed by slot. Names are matched ignoring case
+     *                    and surrounding spaces.
+     * @param fallbackColumns Column letters of each slot for files without a header row, indexed by slot
+     */
+    public ColumnSchema(String[][] slotHeaders, String[] fallbackColumns) {
+        if (slotHeaders.length != SLOT_COUNT || fallbackColumns.length != SLOT_COUNT) throw new IllegalArgumentException("Schema needs " + SLOT_COUNT + " slots");
+        this.slotHeaders = new String[SLOT_COUNT][];
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            this.slotHeaders[slot] = new String[slotHeaders[slot].length];
+            for (int i = 0; i < slotHeaders[slot].length; i++) {
+                this.slotHeaders[slot][i] = Normalise(slotHeaders[slot][i]);
+                headerSlots.putIfAbsent(this.slotHeaders[slot][i], slot);
+            }
+        }
+        int[] columns = new int[SLOT_COUNT];
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            columns[slot] = ColumnIndex(fallbackColumns[slot]);
+            if (columns[slot] < 0) throw new IllegalArgumentException("Invalid column letters: " + fallbackColumns[slot]);
+        }
+        fallbackLayout = new Layout(columns, false);
+    }
+
+    /**
+     * @return Schema of a GDS stock export
+     */
+    public static ColumnSchema Default() {
+        return new ColumnSchema(new String[][] {
+                { "Part" },
+                { "Supplier Part Codes" },
+                { "Description" },
+                { "Location" },
+                { "On Stock" },
+                { "Last Sold Date" },
+                { "Category" }
+        }, new String[] { "A", "B", "C", "D", "G", "N", "H" });
+    }
+
+    /**
+     * Maps a header row to a layout. If any slot has no header, the row is not a header row and the fallback layout
+     * is used instead.
+     * @param headers Text of each header cell, indexed by column, with null for missing cells
+     * @return Layout of the file
+     */
+    public Layout MapHeader(String[] headers) {
+        int[] columns = new int[SLOT_COUNT];
+        Arrays.fill(columns, -1);
+        int slotsFound = 0;
+        for (int column = 0; column < headers.length; column++) {
+            if (headers[column] == null) continue;
+            Integer slot = headerSlots.get(Normalise(headers[column]));
+            // The first column with a slot's header is used
+            if (slot != null && columns[slot] == -1) {
+                columns[slot] = column;
+                slotsFound++;
+            }
+        }
+        return slotsFound == SLOT_COUNT ? new Layout(columns, true) : fallbackLayout;
+    }
+
+    /**
+     * @return Layout used for files without a header row
+     */
+    public Layout GetFallbackLayout() {
+        return fallbackLayout;
+    }
+
+    /**
+     * Adds the header names and fallback columns to a digest, so results imported with different schemas have
+     * different fingerprints
+     */
+    void AddToDigest(MessageDigest digest) {
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            for (String header : slotHeaders[slot]) {
+                digest.update(header.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update((byte) 1);
+            int column = fallbackLayout.GetColumn(slot);
+            digest.update(new byte[] { (byte) (column >>> 24), (byte) (column >>> 16), (byte) (column >>> 8), (byte) column });
+        }
+    }
+
+    /**
+     * Gets the column index of spreadsheet column letters, or of a cell reference such as "AB12"
+     * @param reference Column letters, optionally followed by a row number
+     * @return Zero-based column index, or -1 if the reference does not start with a column letter
+     */
+    public static int ColumnIndex(CharSequence reference) {
+        int column = 0;
+        int i = 0;
+        for (; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                column = column * 26 + (c - 'A' + 1);
+            } else if (c >= 'a' && c <= 'z') {
+                column = column * 26 + (c - 'a' + 1);
+            } else {
+                break;
+            }
+        }
+        return i == 0 ? -1 : column - 1;
+    }
+
+    private static String Normalise(String header) {
+        return header.trim().toLowerCase(Locale.ROOT);
+    }
+}
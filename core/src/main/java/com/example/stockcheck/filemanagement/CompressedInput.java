@@ -0,0 +1,65 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Recognises exports sent compressed, as .csv.gz or as a .zip holding a .csv, by their first bytes, and opens their
+ * uncompressed data as a stream.
+ */
+public class CompressedInput {
+
+    public enum Format { NONE, GZIP, ZIP }
+
+    /**
+     * Number of bytes needed to recognise a format
+     */
+    static final int MAGIC_LENGTH = 4;
+
+    private CompressedInput() {}
+
+    /**
+     * @param head The first bytes of a file
+     * @param length Number of bytes in head, which may be less than MAGIC_LENGTH for short files
+     * @return Format of the file
+     */
+    public static Format Detect(byte[] head, int length) {
+        if (length >= 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B) return Format.GZIP;
+        if (length >= 4 && head[0] == 'P' && head[1] == 'K' && head[2] == 3 && head[3] == 4) return Format.ZIP;
+        return Format.NONE;
+    }
+
+    /**
+     * @param buffer File data, from index 0 to its limit
+     * @return Format of the file
+     */
+    public static Format Detect(ByteBuffer buffer) {
+        byte[] head = new byte[Math.min(MAGIC_LENGTH, buffer.limit())];
+        for (int i = 0; i < head.length; i++) head[i] = buffer.get(i);
+        return Detect(head, head.length);
+    }
+
+    /**
+     * Opens the uncompressed .csv data of a compressed file. For a zip, this is the first entry ending in .csv.
+     * @param compressed Stream of the compressed file
+     * @param format Format of the file, which must not be NONE
+     * @return Stream of the uncompressed data, which closes the compressed stream when closed
+     * @throws ImportException If a zip holds no .csv file
+     * @throws IOException If the data cannot be read
+     */
+    public static InputStream Open(InputStream compressed, Format format) throws ImportException, IOException {
+        if (format == Format.GZIP) return new GZIPInputStream(compressed, 64 * 1024);
+        ZipInputStream zipInputStream = new ZipInputStream(compressed);
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().toLowerCase(Locale.ROOT).endsWith(".csv")) return zipInputStream;
+        }
+        zipInputStream.close();
+        throw new ImportException(ImportException.Reason.INVALID_FILE, "No .csv file in zip");
+    }
+}
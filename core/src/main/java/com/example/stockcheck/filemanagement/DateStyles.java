@@ -0,0 +1,145 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.HashSet;
+
+/**
+ * The cell styles of a .xlsx workbook that show serial dates, read once from styles.xml into a bitset of style
+ * indexes, so checking a cell's style is a bit lookup. Converted dates are cached by serial day, as a sheet uses
+ * the same few dates on many rows. Safe to use from every sheet's thread once read.
+ */
+public class DateStyles {
+
+    // Built-in number formats from m/d/yyyy (14) to m/d/yy h:mm (22)
+    private static final int FIRST_BUILT_IN_DATE = 14;
+    private static final int LAST_BUILT_IN_DATE = 22;
+    private static final int CACHE_SIZE = 4096;
+    // Date pattern month first to convert american XLSX date style to british day first
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final LocalDate SERIAL_DAY_ZERO = LocalDate.of(1899, 12, 30);
+
+    /**
+     * Text of a serial date, replaced as a whole in the cache so threads never see a serial with another's text
+     */
+    private static final class CachedDate {
+        final int serial;
+        final String text;
+
+        CachedDate(int serial, String text) {
+            this.serial = serial;
+            this.text = text;
+        }
+    }
+
+    private final BitSet dateStyles = new BitSet();
+    // Direct-mapped cache of dates by serial day, over a span of about 11 years without collisions
+    private final CachedDate[] cachedDates = new CachedDate[CACHE_SIZE];
+
+    /**
+     * Constructor for a workbook without date styles
+     */
+    public DateStyles() {
+    }
+
+    /**
+     * Parses styles xml to find the cell styles with a date number format, either built in or custom
+     * @param inputStream Stream of styles.xml
+     * @return Date styles of the workbook
+     * @throws IOException If the xml cannot be read
+     */
+    public static DateStyles Read(InputStream inputStream) throws IOException {
+        DateStyles styles = new DateStyles();
+        HashSet<Integer> customDateFormats = new HashSet<>();
+        XMLScanner scanner = new XMLScanner(inputStream);
+        boolean inCellStyles = false;
+        int styleIndex = 0;
+        while (scanner.Next() != XMLScanner.END_DOCUMENT) {
+            if (scanner.IsStartTag("numFmt")) {
+                // Custom formats come before the styles using them
+                int formatId = ParseId(scanner.GetAttribute("numFmtId"));
+                if (formatId != -1 && IsDatePattern(scanner.GetAttribute("formatCode"))) customDateFormats.add(formatId);
+            } else if (scanner.IsStartTag("cellXfs")) {
+                inCellStyles = true;
+            } else if (scanner.IsEndTag("cellXfs")) {
+                break;
+            } else if (inCellStyles && scanner.IsStartTag("xf")) {
+                int formatId = ParseId(scanner.GetAttribute("numFmtId"));
+                if ((formatId >= FIRST_BUILT_IN_DATE && formatId <= LAST_BUILT_IN_DATE) || customDateFormats.contains(formatId)) {
+                    styles.dateStyles.set(styleIndex);
+                }
+                styleIndex++;
+            }
+        }
+        return styles;
+    }
+
+    /**
+     * @param styleIndex Index of a cell style, or -1 for a cell without a style
+     * @return Whether cells with the style show a date
+     */
+    public boolean IsDate(int styleIndex) {
+        return styleIndex >= 0 && dateStyles.get(styleIndex);
+    }
+
+    /**
+     * Converts a serial date to readable text. Any time of day is dropped.
+     * @param serial Days since the start of 1900, as stored in the cell
+     * @return Date in the form MM/dd/yyyy, or the serial unchanged if it is not a date
+     */
+    public String Format(String serial) {
+        int days = 0;
+        int i = 0;
+        for (; i < serial.length(); i++) {
+            char c = serial.charAt(i);
+            if (c < '0' || c > '9' || days > 10_000_000) break;
+            days = days * 10 + (c - '0');
+        }
+        if (i == 0 || (i < serial.length() && serial.charAt(i) != '.')) return serial;
+        int slot = days & (CACHE_SIZE - 1);
+        CachedDate cachedDate = cachedDates[slot];
+        if (cachedDate == null || cachedDate.serial != days) {
+            cachedDate = new CachedDate(days, SERIAL_DAY_ZERO.plusDays(days).format(DATE_FORMAT));
+            cachedDates[slot] = cachedDate;
+        }
+        return cachedDate.text;
+    }
+
+    /**
+     * Checks whether a custom number format shows a date. Quoted text, escaped characters and bracketed sections,
+     * such as colours, locales and elapsed time, are ignored, then the format is a date if it has day or year parts.
+     */
+    static boolean IsDatePattern(String formatCode) {
+        if (formatCode == null) return false;
+        for (int i = 0; i < formatCode.length(); i++) {
+            char c = formatCode.charAt(i);
+            if (c == '"') {
+                int end = formatCode.indexOf('"', i + 1);
+                if (end == -1) return false;
+                i = end;
+            } else if (c == '\\' || c == '_' || c == '*') {
+                // Next character is literal, or a padding character
+                i++;
+            } else if (c == '[') {
+                int end = formatCode.indexOf(']', i + 1);
+                if (end == -1) return false;
+                i = end;
+            } else if (c == 'd' || c == 'D' || c == 'y' || c == 'Y') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int ParseId(String id) {
+        if (id == null) return -1;
+        try {
+            return Integer.parseInt(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
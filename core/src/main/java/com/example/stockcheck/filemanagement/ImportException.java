@@ -0,0 +1,53 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.util.zip.ZipException;
+
+/**
+ * Error from importing a file, with a reason the UI can show a message for.
+ */
+public class ImportException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        /** The file is not a .csv or .xlsx file */
+        UNSUPPORTED_TYPE,
+        /** The file could not be opened */
+        CANNOT_OPEN,
+        /** The file could not be read part way through */
+        READ_FAILED,
+        /** The file's contents are not valid for its type */
+        INVALID_FILE,
+        /** The import was cancelled */
+        CANCELLED
+    }
+
+    private final Reason reason;
+
+    public ImportException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public ImportException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason GetReason() {
+        return reason;
+    }
+
+    /**
+     * Gives the reason for any exception thrown while importing
+     * @param e Exception thrown by a reader
+     * @return The exception itself if it is already an ImportException, otherwise a new ImportException caused by it
+     */
+    public static ImportException From(Exception e) {
+        if (e instanceof ImportException) return (ImportException) e;
+        // A broken zip is a problem with the file, not with reading it
+        if (e instanceof IOException && !(e instanceof ZipException)) return new ImportException(Reason.READ_FAILED, e.toString(), e);
+        return new ImportException(Reason.INVALID_FILE, e.toString(), e);
+    }
+}
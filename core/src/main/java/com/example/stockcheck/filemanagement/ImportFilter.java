@@ -0,0 +1,148 @@
+package com.example.stockcheck.filemanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Rules deciding which imported rows are kept, based only on their Category and Part fields. Readers check these two
+ * fields first, and skip the rest of a row when it is rejected.
+ */
+public class ImportFilter {
+
+    private final String[] categories;
+    private final String[] partPrefixes;
+    private final byte[][] categoryBytes;
+    private final byte[][] partPrefixBytes;
+    /**
+     * Whether each byte value can start a part prefix, to reject most parts from their first byte
+     */
+    private final boolean[] partFirstBytes = new boolean[256];
+    private final boolean acceptsEmptyPart;
+
+    /**
+     * Constructor taking the rules, compiled once for use on every row.
+     * @param categories Accepted categories, or empty to accept any category
+     * @param partPrefixes Accepted part prefixes, or empty to accept any part
+     */
+    public ImportFilter(String[] categories, String[] partPrefixes) {
+        this.categories = categories.clone();
+        this.partPrefixes = partPrefixes.clone();
+        categoryBytes = new byte[categories.length][];
+        for (int i = 0; i < categories.length; i++) categoryBytes[i] = categories[i].getBytes(StandardCharsets.UTF_8);
+        partPrefixBytes = new byte[partPrefixes.length][];
+        boolean emptyPrefix = partPrefixes.length == 0;
+        for (int i = 0; i < partPrefixes.length; i++) {
+            partPrefixBytes[i] = partPrefixes[i].getBytes(StandardCharsets.UTF_8);
+            if (partPrefixBytes[i].length == 0) {
+                emptyPrefix = true;
+            } else {
+                partFirstBytes[partPrefixBytes[i][0] & 0xFF] = true;
+            }
+        }
+        acceptsEmptyPart = emptyPrefix;
+    }
+
+    /**
+     * @return Filter accepting tyres, which have the category 'Tyres' and a part number starting with 1, 2, or 3
+     */
+    public static ImportFilter Default() {
+        return new ImportFilter(new String[] { "Tyres" }, new String[] { "1", "2", "3" });
+    }
+
+    /**
+     * Checks whether a row with the given fields is kept.
+     * @param category 'Category' field text
+     * @param part 'Part' field text
+     * @return Whether the row passes the filter
+     */
+    public boolean Accepts(String category, String part) {
+        return AcceptsCategory(category) && AcceptsPart(part);
+    }
+
+    public boolean AcceptsCategory(String category) {
+        if (categories.length == 0) return true;
+        for (String c : categories) {
+            if (c.equals(category)) return true;
+        }
+        return false;
+    }
+
+    public boolean AcceptsPart(String part) {
+        if (acceptsEmptyPart) return true;
+        for (String prefix : partPrefixes) {
+            if (part.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the current row of a tokenizer is kept, comparing its bytes without creating any strings.
+     * @param tokenizer Tokenizer positioned on a row
+     * @param categoryField Index of the 'Category' field
+     * @param partField Index of the 'Part' field
+     * @return Whether the row passes the filter
+     */
+    boolean Accepts(CSVTokenizer tokenizer, int categoryField, int partField) {
+        if (categoryBytes.length > 0) {
+            boolean categoryMatched = false;
+            for (byte[] category : categoryBytes) {
+                if (tokenizer.FieldEquals(categoryField, category)) {
+                    categoryMatched = true;
+                    break;
+                }
+            }
+            if (!categoryMatched) return false;
+        }
+        if (acceptsEmptyPart) return true;
+        int firstByte = tokenizer.FieldFirstByte(partField);
+        if (firstByte == -1 || !partFirstBytes[firstByte]) return false;
+        for (byte[] prefix : partPrefixBytes) {
+            if (tokenizer.FieldStartsWith(partField, prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a shared string is an accepted category, comparing its bytes without creating a string.
+     * @param strings Shared strings of a workbook
+     * @param index Index of the 'Category' field's shared string
+     */
+    boolean AcceptsCategory(SharedStringTable strings, int index) {
+        if (categoryBytes.length == 0) return true;
+        for (byte[] category : categoryBytes) {
+            if (strings.Equals(index, category)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a shared string is an accepted part, comparing its bytes without creating a string.
+     * @param strings Shared strings of a workbook
+     * @param index Index of the 'Part' field's shared string
+     */
+    boolean AcceptsPart(SharedStringTable strings, int index) {
+        if (acceptsEmptyPart) return true;
+        int firstByte = strings.FirstByte(index);
+        if (firstByte == -1 || !partFirstBytes[firstByte]) return false;
+        for (byte[] prefix : partPrefixBytes) {
+            if (strings.StartsWith(index, prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the rules to a digest, so results imported with different rules have different fingerprints
+     */
+    void AddToDigest(MessageDigest digest) {
+        for (byte[] category : categoryBytes) {
+            digest.update(category);
+            digest.update((byte) 0);
+        }
+        digest.update((byte) 1);
+        for (byte[] prefix : partPrefixBytes) {
+            digest.update(prefix);
+            digest.update((byte) 0);
+        }
+        digest.update((byte) 1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.stockcheck.filemanagement;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of an import, updated by readers as they parse and read by the UI. Also used to cancel the import.
+ * Bytes read counts the data parsed, which is the file itself for .csv files, and the unzipped xml for .xlsx files.
+ */
+public class ImportProgress {
+
+    // Counters are added to from every parsing thread, so use LongAdder to avoid contention
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder rowsSeen = new LongAdder();
+    private final LongAdder tyresKept = new LongAdder();
+    private final StringPool stringPool = new StringPool();
+    private volatile long totalBytes = -1;
+    private volatile boolean cancelled = false;
+    private volatile boolean finished = false;
+    private volatile ImportException error;
+
+    public long GetBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * @return Total number of bytes that will be read, or -1 if not known
+     */
+    public long GetTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return Number of rows parsed, including rows rejected by the import filter
+     */
+    public long GetRowsSeen() {
+        return rowsSeen.sum();
+    }
+
+    public long GetTyresKept() {
+        return tyresKept.sum();
+    }
+
+    /**
+     * @return Pool that deduplicates the field strings of this import, with counts of the strings it saved
+     */
+    public StringPool GetStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Asks the import to stop. Readers stop at the next row, and the import fails with reason CANCELLED.
+     */
+    public void Cancel() {
+        cancelled = true;
+    }
+
+    public boolean IsCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return Whether the import has stopped, either because it finished or because it failed
+     */
+    public boolean IsFinished() {
+        return finished;
+    }
+
+    /**
+     * @return Why the import failed, or null if it has not failed
+     */
+    public ImportException GetError() {
+        return error;
+    }
+
+    void AddBytesRead(long count) {
+        bytesRead.add(count);
+    }
+
+    void SetTotalBytes(long count) {
+        totalBytes = count;
+    }
+
+    void AddRowsSeen(long count) {
+        rowsSeen.add(count);
+    }
+
+    void AddTyresKept(long count) {
+        tyresKept.add(count);
+    }
+
+    void Finish(ImportException error) {
+        this.error = error;
+        stringPool.Clear();
+        finished = true;
+    }
+
+    void ThrowIfCancelled() throws ImportException {
+        if (cancelled) throw new ImportException(ImportException.Reason.CANCELLED, "Import cancelled");
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.stockcheck.filemanagement;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-maps files given by path, so readers can access their bytes without copying them.
+ */
+public class MappedFile {
+
+    private MappedFile() {}
+
+    /**
+     * Maps a whole file read-only. The mapping stays valid after this returns, until the buffer is garbage collected.
+     * @param path Path of the file
+     * @return The mapped file, from index 0 to its limit
+     * @throws ImportException If the file cannot be opened or is too large to map
+     */
+    public static ByteBuffer Map(Path path) throws ImportException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new ImportException(ImportException.Reason.CANNOT_OPEN, "File too large to map: " + path);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (ImportException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ImportException(ImportException.Reason.CANNOT_OPEN, e.toString(), e);
+        }
+    }
+}
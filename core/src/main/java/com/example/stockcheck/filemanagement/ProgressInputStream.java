@@ -0,0 +1,52 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * InputStream that adds the bytes read through it to an import's progress. Once the import is cancelled, reads
+ * fail, so parsers that read a whole document at once still stop promptly.
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+    private final ImportProgress progress;
+
+    public ProgressInputStream(InputStream inputStream, ImportProgress progress) {
+        super(inputStream);
+        this.progress = progress;
+    }
+
+    @Override
+    public int read() throws IOException {
+        CheckCancelled();
+        int b = super.read();
+        if (b != -1) progress.AddBytesRead(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        CheckCancelled();
+        int count = super.read(bytes, offset, length);
+        if (count > 0) progress.AddBytesRead(count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = super.skip(count);
+        if (skipped > 0) progress.AddBytesRead(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void CheckCancelled() throws IOException {
+        if (progress.IsCancelled()) throw new InterruptedIOException("Import cancelled");
+    }
+}
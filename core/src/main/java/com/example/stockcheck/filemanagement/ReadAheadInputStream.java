@@ -0,0 +1,141 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InputStream that reads another stream ahead on a background thread, a few blocks at a time, so work done by the
+ * source, such as inflating compressed data, overlaps with the work of the reader. Blocks are reused, so reading
+ * ahead allocates nothing after the first few blocks.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int BLOCK_COUNT = 4;
+
+    // Several batch imports may read ahead at once, so threads are created as needed
+    private static final ExecutorService readAheadExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Read ahead");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Data read from the source, or the end of the source, or the error that stopped reading it
+     */
+    private static class Block {
+        final byte[] bytes = new byte[BLOCK_SIZE];
+        int length;
+        boolean isEnd;
+        Exception error;
+    }
+
+    private final InputStream source;
+    private final BlockingQueue<Block> freeBlocks = new ArrayBlockingQueue<>(BLOCK_COUNT);
+    private final BlockingQueue<Block> filledBlocks = new ArrayBlockingQueue<>(BLOCK_COUNT);
+    private volatile boolean closed = false;
+    private Block current;
+    private int position;
+
+    /**
+     * Starts reading a stream ahead. The source is closed by the background thread once it has been read, or once
+     * this stream is closed.
+     * @param source Stream to read, which is only read from the background thread
+     */
+    public ReadAheadInputStream(InputStream source) {
+        this.source = source;
+        for (int i = 0; i < BLOCK_COUNT; i++) freeBlocks.add(new Block());
+        readAheadExecutor.execute(this::ReadSource);
+    }
+
+    /**
+     * Fills free blocks from the source and hands them over in order, until the source ends, fails, or this stream
+     * is closed
+     */
+    private void ReadSource() {
+        try {
+            while (!closed) {
+                Block block = freeBlocks.poll(100, TimeUnit.MILLISECONDS);
+                if (block == null) continue;
+                block.length = 0;
+                int count = 0;
+                try {
+                    while (block.length < BLOCK_SIZE && (count = source.read(block.bytes, block.length, BLOCK_SIZE - block.length)) != -1) {
+                        block.length += count;
+                    }
+                } catch (Exception e) {
+                    block.error = e;
+                }
+                block.isEnd = count == -1 || block.error != null;
+                // There are only BLOCK_COUNT blocks, so the filled queue always has room
+                filledBlocks.add(block);
+                if (block.isEnd) break;
+            }
+        } catch (InterruptedException ignored) {
+        } finally {
+            try {
+                source.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!NextData()) return -1;
+        return current.bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) return 0;
+        if (!NextData()) return -1;
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.bytes, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Moves to the next filled block if the current one has been read
+     * @return Whether there is data to read
+     */
+    private boolean NextData() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        while (current == null || position == current.length) {
+            if (current != null) {
+                if (current.isEnd) return false;
+                freeBlocks.add(current);
+            }
+            try {
+                current = filledBlocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Read ahead interrupted");
+            }
+            position = 0;
+            if (current.error != null) {
+                Exception error = current.error;
+                current.length = 0;
+                if (error instanceof IOException) throw (IOException) error;
+                throw new IOException(error);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int available() {
+        return current != null ? current.length - position : 0;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.stockcheck.filemanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Shared strings of a .xlsx workbook, kept as UTF-8 bytes in one buffer with the offset of each string. Most shared
+ * strings belong to rows the filter drops, so a String is only created the first time a kept row uses an index, and
+ * the filter compares category and part bytes in the buffer directly.
+ * One thread adds strings while sheets are read on other threads. Strings are published as soon as they end, and a
+ * reader needing a string that has not been added yet waits for it, so sheets are parsed alongside the strings.
+ */
+public class SharedStringTable {
+
+    // Strings published to waiting readers at a time
+    private static final int NOTIFY_INTERVAL = 256;
+
+    // Arrays are replaced when they grow, so readers always see a copy with every published string
+    private volatile byte[] data = new byte[64 * 1024];
+    private int dataSize = 0;
+    /**
+     * Start of each string in the data, followed by the end of the last string
+     */
+    private volatile int[] offsets = new int[1024];
+    /**
+     * Number of strings published, written after their data
+     */
+    private volatile int count = 0;
+    private boolean complete = false;
+    /**
+     * Strings already created, by index, so a string used by many rows is decoded once
+     */
+    private String[] strings;
+
+    /**
+     * @return Number of strings added so far
+     */
+    public int GetCount() {
+        return count;
+    }
+
+    /**
+     * @return Number of bytes of string data held
+     */
+    public int GetDataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Gets a shared string, creating it on first use
+     * @param index Index of the string, in workbook order
+     * @return Text of the string
+     * @throws IndexOutOfBoundsException If the table is complete without such a string
+     */
+    public String Get(int index) {
+        CheckIndex(index);
+        int[] offsets = this.offsets;
+        synchronized (this) {
+            if (strings == null || strings.length <= index) strings = strings == null ? new String[count] : Arrays.copyOf(strings, count);
+            String string = strings[index];
+            if (string == null) {
+                string = new String(data, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+                strings[index] = string;
+            }
+            return string;
+        }
+    }
+
+    /**
+     * @return Whether a string's bytes equal some UTF-8 text
+     */
+    boolean Equals(int index, byte[] text) {
+        CheckIndex(index);
+        int[] offsets = this.offsets;
+        return offsets[index + 1] - offsets[index] == text.length && StartsWith(index, text);
+    }
+
+    /**
+     * @return Whether a string's bytes start with some UTF-8 text
+     */
+    boolean StartsWith(int index, byte[] prefix) {
+        CheckIndex(index);
+        int[] offsets = this.offsets;
+        byte[] data = this.data;
+        int start = offsets[index];
+        if (offsets[index + 1] - start < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[start + i] != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return First byte of a string, from 0 to 255, or -1 if the string is empty
+     */
+    int FirstByte(int index) {
+        CheckIndex(index);
+        int[] offsets = this.offsets;
+        return offsets[index + 1] > offsets[index] ? data[offsets[index]] & 0xFF : -1;
+    }
+
+    /**
+     * Appends UTF-8 bytes to the string being added
+     */
+    void Append(byte[] bytes, int offset, int length) {
+        EnsureCapacity(length);
+        System.arraycopy(bytes, offset, data, dataSize, length);
+        dataSize += length;
+    }
+
+    /**
+     * Appends a character to the string being added, encoded as UTF-8
+     */
+    void AppendCodePoint(int codePoint) {
+        EnsureCapacity(4);
+        byte[] data = this.data;
+        if (codePoint < 0x80) {
+            data[dataSize++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            data[dataSize++] = (byte) (0xC0 | (codePoint >> 6));
+            data[dataSize++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            data[dataSize++] = (byte) (0xE0 | (codePoint >> 12));
+            data[dataSize++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            data[dataSize++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            data[dataSize++] = (byte) (0xF0 | (codePoint >> 18));
+            data[dataSize++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            data[dataSize++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            data[dataSize++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    /**
+     * Ends the string being added, so following bytes start the next string
+     */
+    void EndString() {
+        int added = count;
+        if (added + 2 > offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        offsets[added + 1] = dataSize;
+        count = added + 1;
+        if (count % NOTIFY_INTERVAL == 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Marks the table as complete once every string has been added, or adding strings failed, so readers stop
+     * waiting for more
+     */
+    synchronized void Complete() {
+        complete = true;
+        notifyAll();
+    }
+
+    private void EnsureCapacity(int length) {
+        if (dataSize + length > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + length));
+    }
+
+    /**
+     * Waits until a string has been added
+     * @throws IndexOutOfBoundsException If the table is complete without the string
+     */
+    private void CheckIndex(int index) {
+        if (index >= 0 && index < count) return;
+        synchronized (this) {
+            while (index >= count && !complete) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for shared strings", e);
+                }
+            }
+        }
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("No shared string " + index);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.stockcheck.filemanagement;
+
+import com.example.stockcheck.model.Tyre;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of the field strings created during one import. Repeated values, such as locations, supplier codes and
+ * dates, are replaced with the first String seen with the same text, so each tyre keeps a reference to one shared
+ * copy instead of its own. Safe to use from every parsing thread.
+ */
+public class StringPool {
+
+    // Estimated heap size of a String besides its characters: object header, fields, and char array header
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final LongAdder stringsReused = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    // Number of distinct strings when the pool was cleared, or -1 if it has not been
+    private volatile int clearedSize = -1;
+
+    /**
+     * Gets the pooled copy of a string, adding it to the pool if its text has not been seen before
+     * @param string String to deduplicate, may be null
+     * @return A String with the same text, shared with every other caller that passed the same text
+     */
+    public String Get(String string) {
+        if (string == null) return null;
+        String pooled = strings.putIfAbsent(string, string);
+        if (pooled == null) return string;
+        if (pooled != string) {
+            stringsReused.increment();
+            bytesSaved.add(STRING_OVERHEAD_BYTES + CharBytes(string) * (long) string.length());
+        }
+        return pooled;
+    }
+
+    /**
+     * Gets the pooled copy of 'On Stock' text cut at the decimal point, see Tyre.WholeStock
+     * @param stock 'On Stock' text
+     * @return The cut text, shared like Get, or stock itself if it has no decimal point
+     */
+    public String GetWholeStock(String stock) {
+        String wholeStock = Tyre.WholeStock(stock);
+        return wholeStock == stock ? stock : Get(wholeStock);
+    }
+
+    /**
+     * Gets the bytes each character of a string takes. Strings of only Latin-1 characters are stored with one byte
+     * per character by the JVM, and ASCII strings by ART, so two bytes are only counted when they are certain.
+     */
+    private static int CharBytes(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * @return Number of distinct strings in the pool, or that were in it when it was cleared
+     */
+    public int GetSize() {
+        int size = clearedSize;
+        return size != -1 ? size : strings.size();
+    }
+
+    /**
+     * @return Number of strings that were replaced with a pooled copy
+     */
+    public long GetStringsReused() {
+        return stringsReused.sum();
+    }
+
+    /**
+     * @return Estimated number of bytes of heap no longer retained, because duplicate strings were replaced
+     */
+    public long GetBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /**
+     * Empties the pool once the import is done, so it does not hold on to strings. Counts are kept.
+     */
+    void Clear() {
+        clearedSize = strings.size();
+        strings.clear();
+    }
+}
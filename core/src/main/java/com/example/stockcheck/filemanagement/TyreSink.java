@@ -0,0 +1,12 @@
+package com.example.stockcheck.filemanagement;
+
+import com.example.stockcheck.model.Tyre;
+
+/**
+ * Receives tyres from a reader as soon as they are parsed, in id order, so they can be used before the whole file
+ * has been read.
+ */
+public interface TyreSink {
+
+    void Add(Tyre tyre);
+}
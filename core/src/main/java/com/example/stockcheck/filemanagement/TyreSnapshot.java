@@ -0,0 +1,422 @@
+package com.example.stockcheck.filemanagement;
+
+import com.example.stockcheck.model.Tyre;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A compact binary copy of the tyres imported from a file, kept in the cache directory and named by a fingerprint
+ * of the file's content and the import settings. Importing the same file again memory-maps the snapshot back in
+ * instead of parsing the file. Each field is stored either as a new string, or as a reference to an earlier string
+ * with the same text, so repeated values are stored and decoded once.
+ */
+public class TyreSnapshot {
+
+    private static final int MAGIC = 0x54595245;
+    // Increase when the format changes, or when readers would produce different tyres from the same file
+    private static final int VERSION = 4;
+    private static final int FIELD_COUNT = 6;
+    private static final int MAX_SNAPSHOTS = 3;
+    private static final int HASH_BLOCK_SIZE = 1 << 20;
+    private static final String EXTENSION = ".snapshot";
+    private static final String SOURCE_EXTENSION = ".source";
+
+    /**
+     * Gets the fingerprint of a file's content and the settings it is imported with
+     * @param buffer File data, from index 0 to its limit
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to check for cancellation
+     * @return Content hash and size of the file, combined with a hash of the settings
+     * @throws Exception If the file cannot be read, or the import is cancelled
+     */
+    public static String Fingerprint(ByteBuffer buffer, ColumnSchema schema, ImportFilter filter, ImportProgress progress) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        ByteBuffer remaining = buffer.duplicate();
+        remaining.position(0);
+        while (remaining.hasRemaining()) {
+            progress.ThrowIfCancelled();
+            ByteBuffer block = remaining.slice();
+            block.limit(Math.min(block.remaining(), HASH_BLOCK_SIZE));
+            digest.update(block);
+            remaining.position(remaining.position() + block.limit());
+        }
+        return Fingerprint(digest, buffer.limit(), schema, filter);
+    }
+
+    public static String Fingerprint(InputStream inputStream, ColumnSchema schema, ImportFilter filter, ImportProgress progress) throws Exception {
+        return new FingerprintingInputStream(inputStream).Finish(schema, filter, progress);
+    }
+
+    /**
+     * Gets a key for a file from what its provider reports about it, for files that can only be read once, so their
+     * snapshot can be found before reading them. See FindFingerprint.
+     * @param name Name of the file that stays the same across imports, such as its uri
+     * @param size Size of the file
+     * @param lastModified Time the file was last modified
+     * @return Hash of the name, size and modified time, combined with a hash of the settings
+     */
+    public static String SourceKey(String name, long size, long lastModified, ColumnSchema schema, ImportFilter filter) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update(Long.toString(lastModified).getBytes(StandardCharsets.UTF_8));
+        return "source-" + Fingerprint(digest, size, schema, filter);
+    }
+
+    /**
+     * Finds the fingerprint of the snapshot committed for a source key
+     * @param directory Directory snapshots are kept in
+     * @param sourceKey Key of the file, from SourceKey
+     * @return Fingerprint of the snapshot, or null if there is none
+     */
+    public static String FindFingerprint(File directory, String sourceKey) {
+        File file = new File(directory, sourceKey + SOURCE_EXTENSION);
+        if (!file.isFile()) return null;
+        try {
+            String fingerprint = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            if (new File(directory, fingerprint + EXTENSION).isFile()) return fingerprint;
+        } catch (IOException e) {
+            System.out.println(e.toString());
+        }
+        file.delete();
+        return null;
+    }
+
+    /**
+     * Stream that fingerprints the data read through it, so a file that can only be read once is fingerprinted while
+     * it is parsed. Closing it does not close the wrapped stream, as Finish reads the rest of the file once parsing
+     * is done. Reads are synchronised, as readers may read it from a read ahead thread.
+     */
+    public static class FingerprintingInputStream extends FilterInputStream {
+
+        private final MessageDigest digest;
+        private long size = 0;
+        private boolean ended = false;
+
+        public FingerprintingInputStream(InputStream inputStream) throws Exception {
+            super(inputStream);
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            int b = in.read();
+            if (b == -1) {
+                ended = true;
+            } else {
+                digest.update((byte) b);
+                size++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = in.read(bytes, offset, length);
+            if (count == -1) {
+                ended = true;
+            } else {
+                digest.update(bytes, offset, count);
+                size += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            // Skipped bytes are read, so they are fingerprinted
+            byte[] block = new byte[(int) Math.min(count, 8192)];
+            long skipped = 0;
+            while (skipped < count) {
+                int read = read(block, 0, (int) Math.min(block.length, count - skipped));
+                if (read == -1) break;
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {}
+
+        /**
+         * Reads any data the parser left, such as the end of a zip, and gets the fingerprint of the whole file
+         * @return Fingerprint of the file and settings, as Fingerprint gives
+         * @throws Exception If the file cannot be read, or the import is cancelled
+         */
+        public synchronized String Finish(ColumnSchema schema, ImportFilter filter, ImportProgress progress) throws Exception {
+            byte[] block = new byte[64 * 1024];
+            while (!ended) {
+                progress.ThrowIfCancelled();
+                read(block, 0, block.length);
+            }
+            return Fingerprint(digest, size, schema, filter);
+        }
+    }
+
+    private static String Fingerprint(MessageDigest contentDigest, long size, ColumnSchema schema, ImportFilter filter) throws Exception {
+        MessageDigest settingsDigest = MessageDigest.getInstance("SHA-256");
+        settingsDigest.update((byte) VERSION);
+        schema.AddToDigest(settingsDigest);
+        filter.AddToDigest(settingsDigest);
+        StringBuilder builder = new StringBuilder();
+        for (byte b : contentDigest.digest()) builder.append(String.format("%02x", b));
+        builder.append('-').append(size).append('-');
+        // A short settings hash is enough to tell the few configurations apart
+        for (byte b : Arrays.copyOf(settingsDigest.digest(), 4)) builder.append(String.format("%02x", b));
+        return builder.toString();
+    }
+
+    /**
+     * Reads the snapshot with a fingerprint, if there is one. A snapshot that cannot be decoded is deleted.
+     * @param directory Directory snapshots are kept in
+     * @param fingerprint Fingerprint of the file and settings
+     * @param progress Progress to update while decoding, and to check for cancellation
+     * @return The tyres of the snapshot, or null if there is no usable snapshot
+     * @throws ImportException If the import is cancelled
+     */
+    public static ArrayList<Tyre> Read(File directory, String fingerprint, ImportProgress progress) throws ImportException {
+        File file = new File(directory, fingerprint + EXTENSION);
+        if (!file.isFile()) return null;
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            FileChannel channel = fileInputStream.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            progress.SetTotalBytes(buffer.limit());
+            ArrayList<Tyre> tyres = Read(buffer, progress);
+            // Mark as recently used, so it is kept when older snapshots are removed
+            file.setLastModified(System.currentTimeMillis());
+            return tyres;
+        } catch (IOException | RuntimeException e) {
+            System.out.println(e.toString());
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a snapshot
+     * @param buffer Snapshot data, from index 0 to its limit
+     * @param progress Progress to update while decoding, and to check for cancellation
+     * @return The tyres of the snapshot, with ids in order
+     * @throws IOException If the data is not a complete snapshot
+     * @throws ImportException If the import is cancelled
+     */
+    public static ArrayList<Tyre> Read(ByteBuffer buffer, ImportProgress progress) throws IOException, ImportException {
+        ByteBuffer data = buffer.duplicate();
+        data.position(0);
+        int end = data.limit() - 8;
+        // A complete snapshot ends with the tyre count and the magic number, written last
+        if (end < 8 || data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt(end + 4) != MAGIC) throw new IOException("Not a complete snapshot");
+        int tyreCount = data.getInt(end);
+        // Each tyre takes at least one byte per field, which bounds the count of a corrupt snapshot
+        ArrayList<Tyre> tyres = new ArrayList<>(Math.max(0, Math.min(tyreCount, (end - 8) / FIELD_COUNT)));
+        ArrayList<String> strings = new ArrayList<>();
+        String[] fields = new String[FIELD_COUNT];
+        byte[] scratch = new byte[256];
+        data.position(8);
+        try {
+            while (data.position() < end) {
+                progress.ThrowIfCancelled();
+                int start = data.position();
+                for (int field = 0; field < FIELD_COUNT; field++) {
+                    int reference = ReadVarInt(data);
+                    if (reference == 0) {
+                        // New string
+                        int length = ReadVarInt(data);
+                        if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                        data.get(scratch, 0, length);
+                        fields[field] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                        strings.add(fields[field]);
+                    } else {
+                        fields[field] = strings.get(reference - 1);
+                    }
+                }
+                tyres.add(new Tyre(tyres.size(), fields[0], fields[1], fields[2], fields[3], fields[4], progress.GetStringPool().GetWholeStock(fields[4]), fields[5], false));
+                progress.AddBytesRead(data.position() - start);
+                progress.AddRowsSeen(1);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt snapshot", e);
+        }
+        if (data.position() != end || tyres.size() != tyreCount) throw new IOException("Corrupt snapshot");
+        return tyres;
+    }
+
+    private static int ReadVarInt(ByteBuffer data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = data.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Corrupt snapshot");
+    }
+
+    /**
+     * Writes a snapshot while a file is imported. The snapshot is written to a temporary file, and only replaces a
+     * snapshot with the same fingerprint once committed, so a failed or cancelled import never leaves a partial
+     * snapshot. Failing to write the snapshot does not fail the import.
+     */
+    public static class Writer implements TyreSink {
+
+        private final File directory;
+        private final String fingerprint;
+        private final File temporaryFile;
+        private final HashMap<String, Integer> stringIndexes = new HashMap<>();
+        private OutputStream outputStream;
+        private int tyreCount = 0;
+
+        /**
+         * @param directory Directory snapshots are kept in
+         * @param fingerprint Fingerprint of the file and settings being imported
+         */
+        public Writer(File directory, String fingerprint) {
+            this.directory = directory;
+            this.fingerprint = fingerprint;
+            // The fingerprint of a streamed file is only known once it has been read
+            temporaryFile = new File(directory, (fingerprint != null ? fingerprint : "stream-" + System.nanoTime()) + ".tmp");
+            try {
+                if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Cannot create " + directory);
+                outputStream = new BufferedOutputStream(new FileOutputStream(temporaryFile), 64 * 1024);
+                WriteInt(MAGIC);
+                WriteInt(VERSION);
+            } catch (IOException e) {
+                Fail(e);
+            }
+        }
+
+        /**
+         * Starts writing a snapshot of a file whose fingerprint is not known yet, see Commit(String, String)
+         * @param directory Directory snapshots are kept in
+         */
+        public Writer(File directory) {
+            this(directory, null);
+        }
+
+        /**
+         * Adds a tyre to the snapshot. Must be called before the tyre can be edited.
+         */
+        @Override
+        public void Add(Tyre tyre) {
+            if (outputStream == null) return;
+            try {
+                WriteField(tyre.GetPart(true, null));
+                WriteField(tyre.GetSupplierPartCode(true, null));
+                WriteField(tyre.GetDescription(true, null));
+                WriteField(tyre.GetLocation(true, null));
+                WriteField(tyre.GetStockText());
+                WriteField(tyre.GetLastSoldDate(true));
+                tyreCount++;
+            } catch (IOException e) {
+                Fail(e);
+            }
+        }
+
+        /**
+         * Finishes the snapshot once every tyre has been added, see Commit(String, String)
+         */
+        public void Commit() {
+            Commit(fingerprint, null);
+        }
+
+        /**
+         * Finishes the snapshot once every tyre has been added, replacing any older snapshot of the same file, and
+         * removes the least recently used snapshots beyond the limit
+         * @param fingerprint Fingerprint of the file and settings
+         * @param sourceKey Key the snapshot can be found by before the file is read, or null
+         */
+        public void Commit(String fingerprint, String sourceKey) {
+            if (outputStream == null) return;
+            File file = new File(directory, fingerprint + EXTENSION);
+            try {
+                WriteInt(tyreCount);
+                WriteInt(MAGIC);
+                outputStream.close();
+                outputStream = null;
+                if (!temporaryFile.renameTo(file)) throw new IOException("Cannot rename " + temporaryFile);
+                if (sourceKey != null) {
+                    try (FileOutputStream sourceOutputStream = new FileOutputStream(new File(directory, sourceKey + SOURCE_EXTENSION))) {
+                        sourceOutputStream.write(fingerprint.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException e) {
+                Fail(e);
+                return;
+            }
+            File[] snapshots = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+            if (snapshots == null || snapshots.length <= MAX_SNAPSHOTS) return;
+            Arrays.sort(snapshots, (file1, file2) -> Long.compare(file2.lastModified(), file1.lastModified()));
+            for (int i = MAX_SNAPSHOTS; i < snapshots.length; i++) snapshots[i].delete();
+            // Source keys of removed snapshots are removed when next looked up, so only the oldest few are kept
+            File[] sources = directory.listFiles((dir, name) -> name.endsWith(SOURCE_EXTENSION));
+            if (sources == null || sources.length <= MAX_SNAPSHOTS * 4) return;
+            Arrays.sort(sources, (file1, file2) -> Long.compare(file2.lastModified(), file1.lastModified()));
+            for (int i = MAX_SNAPSHOTS * 4; i < sources.length; i++) sources[i].delete();
+        }
+
+        /**
+         * Discards the snapshot if it has not been committed
+         */
+        public void Abort() {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException ignored) {}
+                outputStream = null;
+            }
+            temporaryFile.delete();
+        }
+
+        private void WriteField(String value) throws IOException {
+            Integer index = stringIndexes.get(value);
+            if (index != null) {
+                WriteVarInt(index + 1);
+                return;
+            }
+            stringIndexes.put(value, stringIndexes.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            WriteVarInt(0);
+            WriteVarInt(bytes.length);
+            outputStream.write(bytes);
+        }
+
+        private void WriteVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                outputStream.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            outputStream.write(value);
+        }
+
+        private void WriteInt(int value) throws IOException {
+            outputStream.write(value >>> 24);
+            outputStream.write(value >>> 16);
+            outputStream.write(value >>> 8);
+            outputStream.write(value);
+        }
+
+        private void Fail(IOException e) {
+            System.out.println(e.toString());
+            Abort();
+        }
+    }
+}
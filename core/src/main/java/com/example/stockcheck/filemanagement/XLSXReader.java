@@ -0,0 +1,513 @@
+package com.example.stockcheck.filemanagement;
+
+import com.example.stockcheck.model.Tyre;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.ZipException;
+
+/**
+ * Contains a static method to parse .xlsx files. Each xml part is streamed through an XMLScanner, and the sheet is
+ * parsed one row at a time, so memory use does not grow with the number of rows.
+ */
+public class XLSXReader {
+
+    // Tyre data array is indexed by the ColumnSchema slots
+
+    // Parses shared strings alongside the sheets. Several batch imports may run at once, so threads are created as needed.
+    private static final ExecutorService sharedStringsExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "XLSX shared strings");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Reads and parses a .xlsx file to get a list of tyres
+     * @param path Path of a .xlsx file
+     * @return An ArrayList of tyres
+     * @throws Exception If file cannot be read, or contains invalid categories
+     */
+    public static ArrayList<Tyre> Read(Path path) throws Exception {
+        return Read(path, ImportFilter.Default());
+    }
+
+    /**
+     * Reads and parses a .xlsx file to get a list of the rows accepted by a filter
+     * @param path Path of a .xlsx file
+     * @param filter Rules for which rows to keep
+     * @return An ArrayList of tyres
+     * @throws Exception If file cannot be read, or contains invalid categories
+     */
+    public static ArrayList<Tyre> Read(Path path, ImportFilter filter) throws Exception {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        Read(path, ColumnSchema.Default(), filter, new ImportProgress(), tyreList::add);
+        return tyreList;
+    }
+
+    /**
+     * Reads and parses a memory-mapped .xlsx file, passing each row accepted by a filter to a sink as soon as it is parsed
+     * @param path Path of a .xlsx file
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If file cannot be read, or contains invalid categories, or the import is cancelled
+     */
+    public static void Read(Path path, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        try {
+            Read(MappedFile.Map(path), schema, filter, progress, sink);
+        } catch (Exception e) {
+            System.out.println(e.toString());
+            throw e;
+        }
+    }
+
+    /**
+     * Reads and parses .xlsx data from a stream, passing each row accepted by a filter to a sink as soon as it is
+     * parsed. Entries are found through the central directory at the end of the zip, so the data is read into memory
+     * once, still compressed.
+     * @param inputStream Stream of .xlsx data
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If data cannot be read, or contains invalid categories, or the import is cancelled
+     */
+    public static void Read(InputStream inputStream, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        Read(ReadAll(inputStream, progress), schema, filter, progress, sink);
+    }
+
+    /**
+     * Reads and parses .xlsx data held in memory, such as a memory-mapped file, passing each row accepted by a filter
+     * to a sink. Every worksheet is read, in workbook order, with ids continuing from one sheet to the next. Shared
+     * strings are parsed on their own thread while the sheets are parsed, the first on the calling thread, passing its
+     * tyres on as they are parsed, and later sheets in parallel, passing theirs on once the sheets before are done.
+     * @param buffer Buffer of .xlsx data, from index 0 to its limit
+     * @param schema Which columns hold each tyre field
+     * @param filter Rules for which rows to keep
+     * @param progress Progress to update while parsing, and to check for cancellation
+     * @param sink Receives the tyres in id order, on the calling thread
+     * @throws Exception If data cannot be read, or contains invalid categories, or the import is cancelled
+     */
+    public static void Read(ByteBuffer buffer, ColumnSchema schema, ImportFilter filter, ImportProgress progress, TyreSink sink) throws Exception {
+        ZipDirectory zip = new ZipDirectory(buffer);
+        WorkbookParts parts = FindParts(zip);
+        // Unzipped sizes are known from the central directory
+        long totalBytes = 0;
+        if (parts.sharedStrings != null) totalBytes += parts.sharedStrings.GetSize();
+        if (parts.styles != null) totalBytes += parts.styles.GetSize();
+        for (ZipDirectory.Entry sheet : parts.sheets) totalBytes += sheet.GetSize();
+        progress.SetTotalBytes(totalBytes);
+
+        // Styles are small and every sheet needs them, so they are read first
+        DateStyles dateStyles = new DateStyles();
+        if (parts.styles != null) {
+            try (InputStream entryStream = new ProgressInputStream(zip.Open(parts.styles), progress)) {
+                dateStyles = DateStyles.Read(entryStream);
+            }
+        }
+        final DateStyles sheetDateStyles = dateStyles;
+
+        // Shared strings are published as they are parsed, so sheets only wait for strings not parsed yet
+        SharedStringTable sharedStrings = new SharedStringTable();
+        // Set once the import has failed, so tasks already running stop rather than parse the rest of their part
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        Future<?> sharedStringsTask = null;
+        if (parts.sharedStrings != null) {
+            sharedStringsTask = sharedStringsExecutor.submit(() -> {
+                try (InputStream entryStream = new ProgressInputStream(zip.Open(parts.sharedStrings), progress)) {
+                    ReadSharedStrings(entryStream, sharedStrings, aborted);
+                } finally {
+                    sharedStrings.Complete();
+                }
+                return null;
+            });
+        } else {
+            sharedStrings.Complete();
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        List<Future<ArrayList<String[]>>> laterSheets = new ArrayList<>();
+        try {
+            for (int i = 1; i < parts.sheets.size(); i++) {
+                ZipDirectory.Entry sheet = parts.sheets.get(i);
+                laterSheets.add(pool.submit(() -> {
+                    ArrayList<String[]> rows = new ArrayList<>();
+                    try (InputStream entryStream = new ProgressInputStream(zip.Open(sheet), progress)) {
+                        ReadSheet(entryStream, sharedStrings, sheetDateStyles, schema, filter, progress, aborted, rows::add);
+                    }
+                    return rows;
+                }));
+            }
+            TyreCreator tyreCreator = new TyreCreator(sink, progress.GetStringPool());
+            if (!parts.sheets.isEmpty()) {
+                try (InputStream entryStream = new ProgressInputStream(zip.Open(parts.sheets.get(0)), progress)) {
+                    ReadSheet(entryStream, sharedStrings, sheetDateStyles, schema, filter, progress, aborted, tyreCreator);
+                }
+            }
+            for (Future<ArrayList<String[]>> laterSheet : laterSheets) {
+                for (String[] stockEntryData : Get(laterSheet)) tyreCreator.accept(stockEntryData);
+            }
+            if (sharedStringsTask != null) Get(sharedStringsTask);
+        } catch (Exception e) {
+            aborted.set(true);
+            // Sheets fail on missing shared strings if reading the shared strings failed, which is the error to report
+            if (sharedStringsTask != null) Get(sharedStringsTask);
+            throw e;
+        } finally {
+            // Stop any remaining work if a sheet or the sink failed, including sheets already being parsed
+            aborted.set(true);
+            for (Future<?> laterSheet : laterSheets) laterSheet.cancel(false);
+        }
+    }
+
+    /**
+     * Creates tyres from the data of kept rows, numbering them in the order they are passed on
+     */
+    private static final class TyreCreator implements Consumer<String[]> {
+        private final TyreSink sink;
+        private final StringPool pool;
+        private int nextId = 0;
+
+        TyreCreator(TyreSink sink, StringPool pool) {
+            this.sink = sink;
+            this.pool = pool;
+        }
+
+        @Override
+        public void accept(String[] stockEntryData) {
+            sink.Add(new Tyre(nextId++, stockEntryData[0], stockEntryData[1], stockEntryData[2], stockEntryData[3], stockEntryData[4], pool.GetWholeStock(stockEntryData[4]), stockEntryData[5], false));
+        }
+    }
+
+    /**
+     * Waits for the result of a task, rethrowing its exception if it failed
+     */
+    private static <T> T Get(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a whole stream into memory
+     */
+    private static ByteBuffer ReadAll(InputStream inputStream, ImportProgress progress) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+        byte[] block = new byte[64 * 1024];
+        int count;
+        while ((count = inputStream.read(block)) != -1) {
+            progress.ThrowIfCancelled();
+            outputStream.write(block, 0, count);
+        }
+        return ByteBuffer.wrap(outputStream.toByteArray());
+    }
+
+    /**
+     * Zip entries of the workbook parts sheets are read from, null if the workbook does not have one
+     */
+    private static final class WorkbookParts {
+        ZipDirectory.Entry sharedStrings;
+        ZipDirectory.Entry styles;
+        // Worksheets in workbook order
+        final ArrayList<ZipDirectory.Entry> sheets = new ArrayList<>();
+    }
+
+    /**
+     * Finds the parts of the worksheets through the workbook and its relationships, rather than by file name,
+     * since a sheet's part may have any name
+     */
+    private static WorkbookParts FindParts(ZipDirectory zip) throws Exception {
+        WorkbookParts parts = new WorkbookParts();
+        // The package relationships name the workbook part
+        String workbookName = "xl/workbook.xml";
+        ZipDirectory.Entry packageRelationships = zip.Get("_rels/.rels");
+        if (packageRelationships != null) {
+            for (String[] relationship : ReadRelationships(zip, packageRelationships)) {
+                if (relationship[1].endsWith("/officeDocument")) {
+                    workbookName = ResolvePartName("", relationship[2]);
+                    break;
+                }
+            }
+        }
+        String folder = workbookName.substring(0, workbookName.lastIndexOf('/') + 1);
+        ZipDirectory.Entry workbook = zip.Get(workbookName);
+        ZipDirectory.Entry workbookRelationships = zip.Get(folder + "_rels/" + workbookName.substring(folder.length()) + ".rels");
+        if (workbook != null && workbookRelationships != null) {
+            HashMap<String, ZipDirectory.Entry> worksheets = new HashMap<>();
+            for (String[] relationship : ReadRelationships(zip, workbookRelationships)) {
+                ZipDirectory.Entry target = zip.Get(ResolvePartName(folder, relationship[2]));
+                if (target == null) continue;
+                if (relationship[1].endsWith("/sharedStrings")) {
+                    parts.sharedStrings = target;
+                } else if (relationship[1].endsWith("/styles")) {
+                    parts.styles = target;
+                } else if (relationship[1].endsWith("/worksheet")) {
+                    worksheets.put(relationship[0], target);
+                }
+            }
+            // Chart sheets have no worksheet relationship, so are left out
+            for (String sheetId : ReadSheetIds(zip, workbook)) {
+                ZipDirectory.Entry sheet = worksheets.get(sheetId);
+                if (sheet != null) parts.sheets.add(sheet);
+            }
+        }
+        // Fall back to the usual part names for files without relationships
+        if (parts.sharedStrings == null) parts.sharedStrings = zip.Find("sharedStrings.xml");
+        if (parts.styles == null) parts.styles = zip.Find("styles.xml");
+        if (parts.sheets.isEmpty() && zip.Find("sheet1.xml") != null) parts.sheets.add(zip.Find("sheet1.xml"));
+        return parts;
+    }
+
+    /**
+     * Reads the internal relationships of a part
+     * @return Id, type and target of each relationship
+     */
+    private static ArrayList<String[]> ReadRelationships(ZipDirectory zip, ZipDirectory.Entry entry) throws Exception {
+        ArrayList<String[]> relationships = new ArrayList<>();
+        try (InputStream inputStream = zip.Open(entry)) {
+            XMLScanner scanner = new XMLScanner(inputStream);
+            while (scanner.Next() != XMLScanner.END_DOCUMENT) {
+                if (!scanner.IsStartTag("Relationship") || "External".equals(scanner.GetAttribute("TargetMode"))) continue;
+                String id = scanner.GetAttribute("Id");
+                String type = scanner.GetAttribute("Type");
+                String target = scanner.GetAttribute("Target");
+                if (id != null && type != null && target != null) relationships.add(new String[] { id, type, target });
+            }
+        }
+        return relationships;
+    }
+
+    /**
+     * @return Relationship ids of the sheets in the workbook, in order
+     */
+    private static ArrayList<String> ReadSheetIds(ZipDirectory zip, ZipDirectory.Entry workbook) throws Exception {
+        ArrayList<String> sheetIds = new ArrayList<>();
+        try (InputStream inputStream = zip.Open(workbook)) {
+            XMLScanner scanner = new XMLScanner(inputStream);
+            while (scanner.Next() != XMLScanner.END_DOCUMENT) {
+                // Attribute is r:id, the prefix is ignored
+                if (scanner.IsStartTag("sheet") && scanner.GetAttribute("id") != null) sheetIds.add(scanner.GetAttribute("id"));
+            }
+        }
+        return sheetIds;
+    }
+
+    /**
+     * Gets the zip entry name of a relationship target
+     * @param folder Folder of the part owning the relationship, ending with '/', or empty for the package root
+     * @param target Target, relative to the folder, or absolute if it starts with '/'
+     */
+    private static String ResolvePartName(String folder, String target) {
+        String name = target.startsWith("/") ? target.substring(1) : folder + target;
+        // Remove any ".." segments
+        int parent;
+        while ((parent = name.indexOf("/../")) > 0) {
+            int previous = name.lastIndexOf('/', parent - 1);
+            name = name.substring(0, previous + 1) + name.substring(parent + 4);
+        }
+        return name;
+    }
+
+    /**
+     * Parses shared strings xml, adding all shared strings, in order, to a table. The text of each string is the text
+     * of all its runs, without any phonetic hints.
+     * @param aborted Set if the import has failed, to stop parsing
+     */
+    private static void ReadSharedStrings(InputStream inputStream, SharedStringTable sharedStrings, AtomicBoolean aborted) throws Exception {
+        XMLScanner scanner = new XMLScanner(inputStream);
+        boolean inText = false;
+        while (scanner.Next() != XMLScanner.END_DOCUMENT) {
+            if (scanner.IsStartTag("t")) {
+                inText = true;
+            } else if (scanner.IsEndTag("t")) {
+                inText = false;
+            } else if (scanner.IsStartTag("rPh")) {
+                scanner.SkipElement();
+            } else if (inText && scanner.GetEvent() == XMLScanner.TEXT) {
+                scanner.AppendText(sharedStrings);
+            } else if (scanner.IsEndTag("si")) {
+                sharedStrings.EndString();
+                if (aborted.get()) return;
+            }
+        }
+    }
+
+    /**
+     * Cells of one sheet row, in the order they appear
+     */
+    private static final class SheetRow {
+        int cellCount = 0;
+        int[] columns = new int[16];
+        String[] values = new String[16];
+        // Index of a shared string cell's string, -1 for other cells
+        int[] sharedIndexes = new int[16];
+        int[] styles = new int[16];
+
+        void Add(int column, String value, int sharedIndex, int style) {
+            if (cellCount == columns.length) {
+                columns = Arrays.copyOf(columns, cellCount * 2);
+                values = Arrays.copyOf(values, cellCount * 2);
+                sharedIndexes = Arrays.copyOf(sharedIndexes, cellCount * 2);
+                styles = Arrays.copyOf(styles, cellCount * 2);
+            }
+            columns[cellCount] = column;
+            values[cellCount] = value;
+            sharedIndexes[cellCount] = sharedIndex;
+            styles[cellCount] = style;
+            cellCount++;
+        }
+    }
+
+    /**
+     * Parses spreadsheet xml one row at a time, passing the data of each kept row on. Safe to call for several sheets
+     * at once.
+     * @param aborted Set if the import has failed, to stop parsing
+     * @param rows Receives the tyre data array of each kept row
+     */
+    private static void ReadSheet(InputStream inputStream, SharedStringTable sharedStrings, DateStyles dateStyles, ColumnSchema schema, ImportFilter filter, ImportProgress progress, AtomicBoolean aborted, Consumer<String[]> rows) throws Exception {
+        XMLScanner scanner = new XMLScanner(inputStream);
+        // Find the start of the rows
+        while (!scanner.IsStartTag("sheetData")) {
+            if (scanner.Next() == XMLScanner.END_DOCUMENT) return;
+        }
+        ColumnSchema.Layout layout = null;
+        SheetRow row = new SheetRow();
+        int[] slotCells = new int[ColumnSchema.SLOT_COUNT];
+        while (scanner.Next() != XMLScanner.END_DOCUMENT && !scanner.IsEndTag("sheetData")) {
+            if (!scanner.IsStartTag("row")) continue;
+            ReadRow(scanner, layout, row);
+            if (layout == null) {
+                // Map category names to columns
+                int columnCount = 0;
+                for (int cell = 0; cell < row.cellCount; cell++) columnCount = Math.max(columnCount, row.columns[cell] + 1);
+                String[] headers = new String[columnCount];
+                for (int cell = 0; cell < row.cellCount; cell++) {
+                    headers[row.columns[cell]] = ReadCell(row, cell, sharedStrings, dateStyles);
+                }
+                layout = schema.MapHeader(headers);
+                // Without category headers, the first row is parsed as data
+                if (layout.IsFromHeader()) continue;
+            }
+            progress.ThrowIfCancelled();
+            if (aborted.get()) return;
+            progress.AddRowsSeen(1);
+            // Find the cell of each tyre data array entry, without reading any cell data yet
+            Arrays.fill(slotCells, -1);
+            for (int cell = 0; cell < row.cellCount; cell++) {
+                int slot = layout.GetSlot(row.columns[cell]);
+                if (slot != -1) slotCells[slot] = cell;
+            }
+            // Check entry passes the filter using only its category and part, before reading other cells
+            int categoryIndex = SharedStringIndex(row, slotCells[ColumnSchema.CATEGORY], dateStyles);
+            if (categoryIndex != -1 ? !filter.AcceptsCategory(sharedStrings, categoryIndex)
+                    : !filter.AcceptsCategory(ReadCell(row, slotCells[ColumnSchema.CATEGORY], sharedStrings, dateStyles))) continue;
+            int partIndex = SharedStringIndex(row, slotCells[ColumnSchema.PART], dateStyles);
+            if (partIndex != -1 && !filter.AcceptsPart(sharedStrings, partIndex)) continue;
+            String part = ReadCell(row, slotCells[ColumnSchema.PART], sharedStrings, dateStyles);
+            if (partIndex == -1 && !filter.AcceptsPart(part)) continue;
+            // Pass on the tyre data, sharing repeated field text through the import's string pool
+            StringPool pool = progress.GetStringPool();
+            rows.accept(new String[] { part,
+                    pool.Get(ReadCell(row, slotCells[1], sharedStrings, dateStyles)),
+                    pool.Get(ReadCell(row, slotCells[2], sharedStrings, dateStyles)),
+                    pool.Get(ReadCell(row, slotCells[3], sharedStrings, dateStyles)),
+                    pool.Get(ReadCell(row, slotCells[4], sharedStrings, dateStyles)),
+                    pool.Get(ReadCell(row, slotCells[5], sharedStrings, dateStyles)) });
+        }
+    }
+
+    /**
+     * Reads the cells of a row, from its start tag to its end tag. Cells without a value are left out. Cell
+     * references, styles and shared string indexes are decoded from the xml bytes, so only the text of other used
+     * cells creates Strings.
+     * @param layout Layout of the sheet, to skip cells in unused columns, or null to keep every cell
+     * @param row Receives the cells, replacing any cells of the previous row
+     */
+    private static void ReadRow(XMLScanner scanner, ColumnSchema.Layout layout, SheetRow row) throws Exception {
+        row.cellCount = 0;
+        int column = -1;
+        while (scanner.Next() != XMLScanner.END_DOCUMENT && !scanner.IsEndTag("row")) {
+            if (!scanner.IsStartTag("c")) continue;
+            // Cells may leave out their reference, in which case they follow the previous cell
+            int referencedColumn = scanner.GetColumnAttribute("r");
+            column = referencedColumn != -1 ? referencedColumn : column + 1;
+            if (layout != null && layout.GetSlot(column) == -1) {
+                scanner.SkipElement();
+                continue;
+            }
+            boolean shared = scanner.AttributeEquals("t", "s");
+            int style = scanner.GetIntAttribute("s", -1);
+            // Value is in v, or in t elements for inline strings
+            String value = null;
+            int sharedIndex = -1;
+            boolean inValue = false;
+            while (scanner.Next() != XMLScanner.END_DOCUMENT && !scanner.IsEndTag("c")) {
+                if (scanner.IsStartTag("v") || scanner.IsStartTag("t")) {
+                    inValue = true;
+                    if (value == null) value = "";
+                } else if (scanner.IsEndTag("v") || scanner.IsEndTag("t")) {
+                    inValue = false;
+                } else if (scanner.IsStartTag("f") || scanner.IsStartTag("rPh")) {
+                    scanner.SkipElement();
+                } else if (inValue && scanner.GetEvent() == XMLScanner.TEXT) {
+                    if (shared) {
+                        sharedIndex = scanner.GetTextInt();
+                        if (sharedIndex == -1) throw new ZipException("Invalid shared string index");
+                    } else {
+                        value = value.isEmpty() ? scanner.GetText() : value + scanner.GetText();
+                    }
+                }
+            }
+            if (shared && sharedIndex != -1) {
+                row.Add(column, null, sharedIndex, style);
+            } else if (!shared && value != null) {
+                row.Add(column, value, -1, style);
+            }
+        }
+    }
+
+    /**
+     * Gets the shared string of a cell, for cells whose text can be compared in the shared string table directly
+     * @return Index of the shared string, or -1 if the cell is missing, is not a shared string, or is converted to a date
+     */
+    private static int SharedStringIndex(SheetRow row, int cell, DateStyles dateStyles) {
+        if (cell == -1 || dateStyles.IsDate(row.styles[cell])) return -1;
+        return row.sharedIndexes[cell];
+    }
+
+    /**
+     * Reads the data of a cell, replacing shared strings and converting serial dates
+     * @param row Row holding the cell
+     * @param cell Index of the cell in the row, or -1 for a missing cell
+     * @return Cell text, or an empty string for a missing cell
+     */
+    private static String ReadCell(SheetRow row, int cell, SharedStringTable sharedStrings, DateStyles dateStyles) {
+        if (cell == -1) return "";
+        String columnData = row.values[cell];
+        if (row.sharedIndexes[cell] != -1) {
+            // Replace shared string
+            columnData = sharedStrings.Get(row.sharedIndexes[cell]);
+        }
+        if (dateStyles.IsDate(row.styles[cell])) {
+            // Data is serial-date, convert to readable date
+            columnData = dateStyles.Format(columnData);
+        }
+        return columnData;
+    }
+}
@@ -0,0 +1,529 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipException;
+
+/**
+ * Streaming pull scanner for the UTF-8 xml parts of a .xlsx file. Like XmlPullParser, each call to Next moves to the
+ * next start tag, end tag, or text, but only the current token is held in a reusable byte buffer, so memory use does
+ * not grow with the size of the document. Tag names are compared as bytes without creating Strings, and namespace
+ * prefixes are ignored. Comments, processing instructions and doctypes are skipped.
+ */
+public class XMLScanner {
+
+    public static final int END_DOCUMENT = 1;
+    public static final int START_TAG = 2;
+    public static final int END_TAG = 3;
+    public static final int TEXT = 4;
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ATTRIBUTES = 32;
+    // Larger than any spreadsheet column, XFD being the last
+    private static final int MAX_COLUMN = 1 << 20;
+
+    private final InputStream inputStream;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    /**
+     * Index one past the last valid byte in the buffer
+     */
+    private int limit = 0;
+    /**
+     * Index of the first byte of the next token to scan
+     */
+    private int position = 0;
+    private boolean endOfInput = false;
+    private int event = 0;
+    private int depth = 0;
+    /**
+     * Whether the current start tag closed itself, so the next event is its end tag
+     */
+    private boolean emptyElement = false;
+    private int nameStart;
+    private int nameEnd;
+    private int textStart;
+    private int textEnd;
+    private boolean textIsCData;
+    private int attributeCount = 0;
+    private final int[] attributeNameStarts = new int[MAX_ATTRIBUTES];
+    private final int[] attributeNameEnds = new int[MAX_ATTRIBUTES];
+    private final int[] attributeValueStarts = new int[MAX_ATTRIBUTES];
+    private final int[] attributeValueEnds = new int[MAX_ATTRIBUTES];
+
+    /**
+     * Constructor that scans a stream, refilling an internal buffer as tokens are read. The stream is not closed.
+     * @param inputStream Stream of UTF-8 xml
+     */
+    public XMLScanner(InputStream inputStream) throws IOException {
+        this.inputStream = inputStream;
+        Fill();
+        // Skip BOM, if it appears
+        if (limit >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) position = 3;
+    }
+
+    /**
+     * Advances to the next token.
+     * @return The type of the token, END_DOCUMENT at the end of the input
+     * @throws IOException If the xml cannot be read or is not well formed
+     */
+    public int Next() throws IOException {
+        if (emptyElement) {
+            // Name of the end tag is the name of the start tag, still held in the buffer
+            emptyElement = false;
+            return event = END_TAG;
+        }
+        if (event == END_TAG) depth--;
+        attributeCount = 0;
+        while (true) {
+            if (position == limit && !Refill()) return event = END_DOCUMENT;
+            if (buffer[position] != '<') return event = ScanText();
+            // Reading more input moves the buffered data, so indexes are only taken once the token is buffered
+            if (!Require(9) && limit - position < 2) throw new ZipException("Unexpected end of xml");
+            byte type = buffer[position + 1];
+            if (type == '?') {
+                position = FindSequence(position + 2, "?>") + 2;
+            } else if (StartsWith(position, "<!--")) {
+                position = FindSequence(position + 4, "-->") + 3;
+            } else if (StartsWith(position, "<![CDATA[")) {
+                int end = FindSequence(position + 9, "]]>");
+                textStart = position + 9;
+                textEnd = end;
+                textIsCData = true;
+                position = end + 3;
+                return event = TEXT;
+            } else if (type == '!') {
+                position = Find(position + 2, '>') + 1;
+            } else if (type == '/') {
+                int end = Find(position + 2, '>');
+                ScanName(position + 2, end);
+                position = end + 1;
+                return event = END_TAG;
+            } else {
+                int end = Find(position + 1, '>');
+                ScanStartTag(position + 1, end);
+                position = end + 1;
+                depth++;
+                return event = START_TAG;
+            }
+        }
+    }
+
+    /**
+     * @return Type of the current token
+     */
+    public int GetEvent() {
+        return event;
+    }
+
+    /**
+     * @return Number of elements the current token is inside, counting a start tag's own element
+     */
+    public int GetDepth() {
+        return depth;
+    }
+
+    /**
+     * Checks the local name of the current start or end tag, ignoring any namespace prefix
+     * @param name ASCII name to compare with
+     */
+    public boolean IsName(String name) {
+        if (nameEnd - nameStart != name.length()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (buffer[nameStart + i] != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the current token is a start tag with a local name
+     */
+    public boolean IsStartTag(String name) {
+        return event == START_TAG && IsName(name);
+    }
+
+    /**
+     * @return Whether the current token is an end tag with a local name
+     */
+    public boolean IsEndTag(String name) {
+        return event == END_TAG && IsName(name);
+    }
+
+    /**
+     * Gets the value of an attribute of the current start tag, ignoring any namespace prefix of its name
+     * @param name ASCII local name of the attribute
+     * @return The decoded value, or null if the tag has no such attribute
+     */
+    public String GetAttribute(String name) {
+        int index = FindAttribute(name);
+        return index == -1 ? null : Decode(attributeValueStarts[index], attributeValueEnds[index]);
+    }
+
+    /**
+     * Checks the value of an attribute of the current start tag, comparing bytes without creating a String
+     * @param name ASCII local name of the attribute
+     * @param value ASCII value to compare with, without references
+     */
+    public boolean AttributeEquals(String name, String value) {
+        int index = FindAttribute(name);
+        if (index == -1) return false;
+        int start = attributeValueStarts[index];
+        if (attributeValueEnds[index] - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer[start + i] != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the value of a non-negative integer attribute of the current start tag, without creating a String
+     * @param name ASCII local name of the attribute
+     * @param missing Value returned if the tag has no such attribute
+     * @throws ZipException If the value is not a non-negative integer
+     */
+    public int GetIntAttribute(String name, int missing) throws ZipException {
+        int index = FindAttribute(name);
+        if (index == -1) return missing;
+        int value = ParseInt(attributeValueStarts[index], attributeValueEnds[index]);
+        if (value == -1) throw new ZipException("Invalid xml number attribute");
+        return value;
+    }
+
+    /**
+     * Gets the column index of a cell reference attribute of the current start tag, such as r="AB12", decoding the
+     * column letters without creating a String
+     * @param name ASCII local name of the attribute
+     * @return Zero-based column index, or -1 if the tag has no such attribute, or it does not start with a column letter
+     */
+    public int GetColumnAttribute(String name) {
+        int index = FindAttribute(name);
+        if (index == -1) return -1;
+        int column = 0;
+        int i = attributeValueStarts[index];
+        for (; i < attributeValueEnds[index] && column <= MAX_COLUMN; i++) {
+            byte b = buffer[i];
+            if (b >= 'A' && b <= 'Z') {
+                column = column * 26 + (b - 'A' + 1);
+            } else if (b >= 'a' && b <= 'z') {
+                column = column * 26 + (b - 'a' + 1);
+            } else {
+                break;
+            }
+        }
+        return i == attributeValueStarts[index] || column > MAX_COLUMN ? -1 : column - 1;
+    }
+
+    /**
+     * @return The current text token as a non-negative integer, without creating a String, or -1 if it is not one
+     */
+    public int GetTextInt() {
+        return textIsCData ? -1 : ParseInt(textStart, textEnd);
+    }
+
+    /**
+     * @return The decoded text of the current text token
+     */
+    public String GetText() {
+        if (textIsCData) return new String(buffer, textStart, textEnd - textStart, StandardCharsets.UTF_8);
+        return Decode(textStart, textEnd);
+    }
+
+    /**
+     * Skips to the end tag of the current start tag, ignoring everything inside it
+     */
+    public void SkipElement() throws IOException {
+        int elementDepth = depth;
+        while (true) {
+            if (Next() == END_DOCUMENT) throw new ZipException("Unexpected end of xml");
+            if (event == END_TAG && depth == elementDepth) return;
+        }
+    }
+
+    private int FindAttribute(String name) {
+        for (int i = 0; i < attributeCount; i++) {
+            int start = attributeNameStarts[i];
+            int end = attributeNameEnds[i];
+            // Ignore namespace prefix
+            for (int b = end - 1; b >= start; b--) {
+                if (buffer[b] == ':') {
+                    start = b + 1;
+                    break;
+                }
+            }
+            if (end - start != name.length()) continue;
+            boolean matches = true;
+            for (int c = 0; c < name.length(); c++) {
+                if (buffer[start + c] != name.charAt(c)) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses ASCII digits, allowing surrounding whitespace
+     * @return The number, or -1 if the bytes are not a non-negative integer that fits in an int
+     */
+    private int ParseInt(int start, int end) {
+        while (start < end && IsWhitespace(buffer[start])) start++;
+        while (end > start && IsWhitespace(buffer[end - 1])) end--;
+        if (start == end) return -1;
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b < '0' || b > '9') return -1;
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) return -1;
+        }
+        return (int) value;
+    }
+
+    private int ScanText() throws IOException {
+        int end = position;
+        while (true) {
+            while (end < limit && buffer[end] != '<') end++;
+            if (end < limit || endOfInput) break;
+            int offset = end - position;
+            if (!Refill()) break;
+            end = position + offset;
+        }
+        textStart = position;
+        textEnd = end;
+        textIsCData = false;
+        position = end;
+        return TEXT;
+    }
+
+    /**
+     * Records the name and attributes of a start tag
+     * @param start Index of the first byte of the name
+     * @param end Index of the closing '>'
+     */
+    private void ScanStartTag(int start, int end) throws IOException {
+        emptyElement = buffer[end - 1] == '/';
+        int tagEnd = emptyElement ? end - 1 : end;
+        int i = ScanName(start, tagEnd);
+        while (true) {
+            while (i < tagEnd && IsWhitespace(buffer[i])) i++;
+            if (i >= tagEnd) return;
+            if (attributeCount == MAX_ATTRIBUTES) throw new ZipException("Too many xml attributes");
+            attributeNameStarts[attributeCount] = i;
+            while (i < tagEnd && buffer[i] != '=' && !IsWhitespace(buffer[i])) i++;
+            attributeNameEnds[attributeCount] = i;
+            while (i < tagEnd && buffer[i] != '"' && buffer[i] != '\'') i++;
+            if (i >= tagEnd) throw new ZipException("Invalid xml attribute");
+            byte quote = buffer[i++];
+            attributeValueStarts[attributeCount] = i;
+            while (i < tagEnd && buffer[i] != quote) i++;
+            if (i >= tagEnd) throw new ZipException("Invalid xml attribute");
+            attributeValueEnds[attributeCount] = i++;
+            attributeCount++;
+        }
+    }
+
+    /**
+     * Records the local name of a tag
+     * @return Index one past the end of the name
+     */
+    private int ScanName(int start, int end) {
+        int i = start;
+        nameStart = start;
+        while (i < end && !IsWhitespace(buffer[i]) && buffer[i] != '/') {
+            if (buffer[i] == ':') nameStart = i + 1;
+            i++;
+        }
+        nameEnd = i;
+        return i;
+    }
+
+    /**
+     * Finds a byte at or after an index, outside of quoted attribute values, reading more input if needed. Reading
+     * more moves the buffered data, so the result and the current position are both updated.
+     * @return Index of the byte
+     */
+    private int Find(int from, char target) throws IOException {
+        int offset = from - position;
+        byte quote = 0;
+        while (true) {
+            int i = position + offset;
+            while (i < limit) {
+                byte b = buffer[i];
+                if (quote != 0) {
+                    if (b == quote) quote = 0;
+                } else if (b == target) {
+                    return i;
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                }
+                i++;
+            }
+            offset = i - position;
+            if (!Refill()) throw new ZipException("Unexpected end of xml");
+        }
+    }
+
+    private int FindSequence(int from, String sequence) throws IOException {
+        int offset = from - position;
+        while (true) {
+            int i = position + offset;
+            while (i + sequence.length() <= limit) {
+                if (StartsWith(i, sequence)) return i;
+                i++;
+            }
+            offset = i - position;
+            if (!Refill()) throw new ZipException("Unexpected end of xml");
+        }
+    }
+
+    /**
+     * Reads more input until a number of bytes from the current position are buffered
+     * @return Whether the bytes are buffered, false if the input ended first
+     */
+    private boolean Require(int count) throws IOException {
+        while (limit - position < count) {
+            if (!Refill()) return false;
+        }
+        return true;
+    }
+
+    private boolean StartsWith(int index, String sequence) {
+        if (index + sequence.length() > limit) return false;
+        for (int i = 0; i < sequence.length(); i++) {
+            if (buffer[index + i] != sequence.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes UTF-8 bytes, replacing xml character and entity references
+     */
+    private String Decode(int start, int end) {
+        int ampersand = start;
+        while (ampersand < end && buffer[ampersand] != '&') ampersand++;
+        if (ampersand == end) return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        StringBuilder builder = new StringBuilder(end - start);
+        int segmentStart = start;
+        int i = ampersand;
+        while (i < end) {
+            if (buffer[i] != '&') {
+                i++;
+                continue;
+            }
+            int semicolon = i + 1;
+            while (semicolon < end && buffer[semicolon] != ';') semicolon++;
+            if (semicolon == end) break;
+            int codePoint = ReferenceCodePoint(i + 1, semicolon);
+            // Unknown references are kept as they are
+            if (codePoint != -1) {
+                builder.append(new String(buffer, segmentStart, i - segmentStart, StandardCharsets.UTF_8));
+                builder.appendCodePoint(codePoint);
+                segmentStart = semicolon + 1;
+            }
+            i = semicolon + 1;
+        }
+        builder.append(new String(buffer, segmentStart, end - segmentStart, StandardCharsets.UTF_8));
+        return builder.toString();
+    }
+
+    /**
+     * Appends the decoded text of the current text token to the string being added to a shared string table,
+     * without creating a String
+     */
+    void AppendText(SharedStringTable table) {
+        if (textIsCData) {
+            table.Append(buffer, textStart, textEnd - textStart);
+            return;
+        }
+        int segmentStart = textStart;
+        int i = textStart;
+        while (i < textEnd) {
+            if (buffer[i] != '&') {
+                i++;
+                continue;
+            }
+            int semicolon = i + 1;
+            while (semicolon < textEnd && buffer[semicolon] != ';') semicolon++;
+            if (semicolon == textEnd) break;
+            int codePoint = ReferenceCodePoint(i + 1, semicolon);
+            if (codePoint != -1) {
+                table.Append(buffer, segmentStart, i - segmentStart);
+                table.AppendCodePoint(codePoint);
+                segmentStart = semicolon + 1;
+            }
+            i = semicolon + 1;
+        }
+        table.Append(buffer, segmentStart, textEnd - segmentStart);
+    }
+
+    /**
+     * Gets the character of an entity or character reference
+     * @param start Index after the '&'
+     * @param end Index of the ';'
+     * @return The character's code point, or -1 if the reference is unknown
+     */
+    private int ReferenceCodePoint(int start, int end) {
+        String entity = new String(buffer, start, end - start, StandardCharsets.US_ASCII);
+        switch (entity) {
+            case "amp": return '&';
+            case "lt": return '<';
+            case "gt": return '>';
+            case "quot": return '"';
+            case "apos": return '\'';
+            default:
+                try {
+                    int codePoint = entity.startsWith("#x") ? Integer.parseInt(entity.substring(2), 16) : Integer.parseInt(entity.substring(1));
+                    return entity.startsWith("#") && Character.isValidCodePoint(codePoint) ? codePoint : -1;
+                } catch (RuntimeException e) {
+                    return -1;
+                }
+        }
+    }
+
+    private static boolean IsWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Moves the unscanned bytes, from the current position, to the start of the buffer, growing the buffer if they
+     * fill it, then reads more input after them.
+     * @return Whether any more bytes were read
+     */
+    private boolean Refill() throws IOException {
+        if (endOfInput) return false;
+        int remaining = limit - position;
+        if (remaining == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, position, larger, 0, remaining);
+            buffer = larger;
+        } else if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        // Keep the current tag's name valid, as an empty element's end tag reports it
+        nameStart -= position;
+        nameEnd -= position;
+        limit = remaining;
+        position = 0;
+        return Fill() > 0;
+    }
+
+    /**
+     * Reads input into the free space after the buffered data
+     * @return Number of bytes read
+     */
+    private int Fill() throws IOException {
+        int total = 0;
+        while (limit < buffer.length) {
+            int count = inputStream.read(buffer, limit, buffer.length - limit);
+            if (count == -1) {
+                endOfInput = true;
+                break;
+            }
+            limit += count;
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.stockcheck.filemanagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Random access to the entries of a zip file held in a ByteBuffer, found through the zip central directory
+ * rather than by reading through every entry.
+ */
+public class ZipDirectory {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int END_OF_DIRECTORY_SIZE = 22;
+
+    /**
+     * A file stored in the zip
+     */
+    public static class Entry {
+        private final String name;
+        private final int method;
+        private final long compressedSize;
+        private final long size;
+        private final int localHeaderOffset;
+
+        private Entry(String name, int method, long compressedSize, long size, int localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String GetName() {
+            return name;
+        }
+
+        /**
+         * @return Uncompressed size in bytes
+         */
+        public long GetSize() {
+            return size;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Reads the central directory of a zip file.
+     * @param zipData Whole zip file, from index 0 to its limit
+     * @throws ZipException If the data is not a zip file
+     */
+    public ZipDirectory(ByteBuffer zipData) throws ZipException {
+        buffer = zipData.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        // Find end of central directory record, searching back over any zip comment
+        int end = buffer.limit();
+        int recordIndex = -1;
+        for (int i = end - END_OF_DIRECTORY_SIZE; i >= Math.max(0, end - END_OF_DIRECTORY_SIZE - 0xFFFF); i--) {
+            if (buffer.getInt(i) == END_OF_DIRECTORY_SIGNATURE) {
+                recordIndex = i;
+                break;
+            }
+        }
+        if (recordIndex == -1) throw new ZipException("Not a zip file");
+        int entryCount = buffer.getShort(recordIndex + 10) & 0xFFFF;
+        int offset = buffer.getInt(recordIndex + 16);
+        // Read central directory headers
+        for (int i = 0; i < entryCount; i++) {
+            if (offset < 0 || offset + 46 > end || buffer.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid zip central directory");
+            }
+            int method = buffer.getShort(offset + 10) & 0xFFFF;
+            long compressedSize = buffer.getInt(offset + 20) & 0xFFFFFFFFL;
+            long size = buffer.getInt(offset + 24) & 0xFFFFFFFFL;
+            int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+            int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+            int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+            int localHeaderOffset = buffer.getInt(offset + 42);
+            byte[] nameBytes = new byte[nameLength];
+            for (int n = 0; n < nameLength; n++) nameBytes[n] = buffer.get(offset + 46 + n);
+            entries.add(new Entry(new String(nameBytes, StandardCharsets.UTF_8), method, compressedSize, size, localHeaderOffset));
+            offset += 46 + nameLength + extraLength + commentLength;
+        }
+    }
+
+    public List<Entry> GetEntries() {
+        return entries;
+    }
+
+    /**
+     * Finds the first entry whose name contains some text.
+     * @param nameText Text to find in the entry name
+     * @return The entry, or null if there is none
+     */
+    public Entry Find(String nameText) {
+        for (Entry entry : entries) {
+            if (entry.name.contains(nameText)) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the entry with an exact name.
+     * @param name Entry name, relative to the root of the zip
+     * @return The entry, or null if there is none
+     */
+    public Entry Get(String name) {
+        for (Entry entry : entries) {
+            if (entry.name.equals(name)) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Opens a stream of an entry's uncompressed data, reading directly from the zip buffer.
+     * @param entry Entry of this zip
+     * @return Stream of the entry's data
+     * @throws IOException If the entry cannot be read
+     */
+    public InputStream Open(Entry entry) throws IOException {
+        int offset = entry.localHeaderOffset;
+        if (offset < 0 || offset + 30 > buffer.limit() || buffer.getInt(offset) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid zip entry " + entry.name);
+        }
+        int dataStart = offset + 30 + (buffer.getShort(offset + 26) & 0xFFFF) + (buffer.getShort(offset + 28) & 0xFFFF);
+        long dataEnd = dataStart + entry.compressedSize;
+        if (dataEnd > buffer.limit()) throw new ZipException("Truncated zip entry " + entry.name);
+        ByteBuffer data = buffer.duplicate();
+        data.limit((int) dataEnd);
+        data.position(dataStart);
+        switch (entry.method) {
+            case 0:
+                return new ByteBufferInputStream(data);
+            case 8:
+                return new InflaterInputStream(new ByteBufferInputStream(data), new Inflater(true), 64 * 1024) {
+                    @Override
+                    public void close() throws IOException {
+                        super.close();
+                        inf.end();
+                    }
+                };
+            default:
+                throw new ZipException("Unsupported compression method in zip entry " + entry.name);
+        }
+    }
+}
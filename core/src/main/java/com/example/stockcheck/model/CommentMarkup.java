@@ -0,0 +1,28 @@
+package com.example.stockcheck.model;
+
+/**
+ * The html tags placed around inserted and deleted characters when a comment is shown with its changes.
+ */
+public class CommentMarkup {
+
+    public final String insertedStart;
+    public final String insertedEnd;
+    public final String deletedStart;
+    public final String deletedEnd;
+
+    public CommentMarkup(String insertedStart, String insertedEnd, String deletedStart, String deletedEnd) {
+        this.insertedStart = insertedStart;
+        this.insertedEnd = insertedEnd;
+        this.deletedStart = deletedStart;
+        this.deletedEnd = deletedEnd;
+    }
+
+    /**
+     * Markup matching the app's string and colour resources, for use where no resources are available.
+     * @return CommentMarkup
+     */
+    public static CommentMarkup Default() {
+        return new CommentMarkup("<b><u><font color=\"#007700\">", "</font></u></b>",
+                "<s><font color=\"#770000\">", "</font></s>");
+    }
+}
@@ -1,16 +1,14 @@
 package com.example.stockcheck.model;
 
-import android.content.Context;
-import android.os.Parcel;
-import android.os.Parcelable;
-import androidx.annotation.NonNull;
-import com.example.stockcheck.storage.StoredTyre;
+import java.io.Serializable;
 import java.util.Comparator;
 
 /**
  * A store of tyre data with methods to edit fields, and part number, last sold date, and stock comparators.
  */
-public class Tyre implements Parcelable {
+public class Tyre implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public enum CharType { UNCHANGED, DELETED, INSERTED }
 
@@ -20,7 +18,9 @@ public class Tyre implements Parcelable {
     private TyreComment supplierPartCode;
     private TyreComment description;
     private TyreComment location;
-    private final String stock;
+    private String stock;
+    // 'On Stock' text as imported, only kept when it differs from stock, which is cut at the decimal point
+    private String stockText;
     private float stockFloat;
     private String seen = "0";
     private boolean seenIsNumber = true;
@@ -51,16 +51,22 @@ public class Tyre implements Parcelable {
      * @param lastSoldDate 'Last Sold Date' category text
      */
     public Tyre(int id, String part, String supplierPartCode, String description, String location, String stock, String lastSoldDate, boolean isAdded) {
+        this(id, part, supplierPartCode, description, location, stock, WholeStock(stock), lastSoldDate, isAdded);
+    }
+
+    /**
+     * Constructor for imports that share field text, taking the 'On Stock' text already cut at the decimal point, so
+     * the cut text can be shared too
+     * @param wholeStock 'On Stock' category text cut at the decimal point, see WholeStock
+     */
+    public Tyre(int id, String part, String supplierPartCode, String description, String location, String stock, String wholeStock, String lastSoldDate, boolean isAdded) {
         this.id = id;
         this.part = new TyreComment(part);
         this.supplierPartCode = new TyreComment(supplierPartCode);
         this.description = new TyreComment(description);
         this.location = new TyreComment(location);
-        if (stock.contains(".")) {
-            this.stock = stock.split("\\.")[0];
-        } else {
-            this.stock = stock;
-        }
+        this.stock = wholeStock;
+        if (stock.indexOf('.') != -1) this.stockText = stock;
         TryParseStockNumber(stock);
         this.lastSoldDateString = lastSoldDate;
         TryParseDate(lastSoldDate);
@@ -68,34 +74,57 @@ public class Tyre implements Parcelable {
         this.isAdded = isAdded;
     }
 
+    /**
+     * @param stock 'On Stock' text
+     * @return The text before any decimal point, the same String if there is none
+     */
+    public static String WholeStock(String stock) {
+        int point = stock.indexOf('.');
+        return point == -1 ? stock : stock.substring(0, point);
+    }
+
     public int GetId() {
         return id;
     }
 
-    public String GetPart(boolean getRaw, Context context) {
-        return part.GetString(getRaw, context);
+    public String GetPart(boolean getRaw, CommentMarkup markup) {
+        return part.GetString(getRaw, markup);
+    }
+
+    /**
+     * @return 'Part' text as imported, before any edits
+     */
+    public String GetImportedPart() {
+        return part.GetOriginal();
     }
 
     public String GetPartNumber() {
         return String.valueOf(partNumber);
     }
 
-    public String GetSupplierPartCode(boolean getRaw, Context context) {
-        return supplierPartCode.GetString(getRaw, context);
+    public String GetSupplierPartCode(boolean getRaw, CommentMarkup markup) {
+        return supplierPartCode.GetString(getRaw, markup);
     }
 
-    public String GetDescription(boolean getRaw, Context context) {
-        return description.GetString(getRaw, context);
+    public String GetDescription(boolean getRaw, CommentMarkup markup) {
+        return description.GetString(getRaw, markup);
     }
 
-    public String GetLocation(boolean getRaw, Context context) {
-        return location.GetString(getRaw, context);
+    public String GetLocation(boolean getRaw, CommentMarkup markup) {
+        return location.GetString(getRaw, markup);
     }
 
     public String GetStock() {
         return stock;
     }
 
+    /**
+     * @return 'On Stock' text as imported, including any decimal part cut from GetStock
+     */
+    public String GetStockText() {
+        return stockText != null ? stockText : stock;
+    }
+
     public String GetSeen() {
         return seen;
     }
@@ -117,6 +146,10 @@ public class Tyre implements Parcelable {
         else return "<i><font color=\"#007700\">" + extraComment + "</font></i>";
     }
 
+    public boolean IsLastSoldDateChanged() {
+        return lastSoldDateChanged;
+    }
+
     public boolean IsAdded() {
         return isAdded;
     }
@@ -146,6 +179,43 @@ public class Tyre implements Parcelable {
         isEdited = true;
     }
 
+    /**
+     * Edits the part with a change reported by a text field
+     * @param newComment Edited text
+     * @param start Index of the first changed character
+     * @param removed Number of characters removed at start
+     * @param inserted Number of characters of newComment inserted at start
+     */
+    public void EditPart(CharSequence newComment, int start, int removed, int inserted) {
+        part.Edit(newComment, start, removed, inserted);
+        TryParsePartNumber(part.GetString(true, null));
+        isEdited = true;
+    }
+
+    /**
+     * Edits the supplier part code with a change reported by a text field, see {@link #EditPart(CharSequence, int, int, int)}
+     */
+    public void EditSupplierPartCode(CharSequence newComment, int start, int removed, int inserted) {
+        supplierPartCode.Edit(newComment, start, removed, inserted);
+        isEdited = true;
+    }
+
+    /**
+     * Edits the description with a change reported by a text field, see {@link #EditPart(CharSequence, int, int, int)}
+     */
+    public void EditDescription(CharSequence newComment, int start, int removed, int inserted) {
+        description.Edit(newComment, start, removed, inserted);
+        isEdited = true;
+    }
+
+    /**
+     * Edits the location with a change reported by a text field, see {@link #EditPart(CharSequence, int, int, int)}
+     */
+    public void EditLocation(CharSequence newComment, int start, int removed, int inserted) {
+        location.Edit(newComment, start, removed, inserted);
+        isEdited = true;
+    }
+
     public void EditSeen(String newComment) {
         seen = newComment;
         try {
@@ -181,6 +251,28 @@ public class Tyre implements Parcelable {
         isEdited = true;
     }
 
+    /**
+     * Updates the values that come from the stock system with those of a newer import of the same tyre. Seen,
+     * comments, edits and done are kept, as is a last sold date edited by hand.
+     * @param imported The same tyre from the newer import
+     * @return Whether stock or last sold date changed
+     */
+    public boolean MergeImport(Tyre imported) {
+        boolean changed = false;
+        if (!GetStockText().equals(imported.GetStockText())) {
+            stock = imported.stock;
+            stockText = imported.stockText;
+            stockFloat = imported.stockFloat;
+            changed = true;
+        }
+        if (!lastSoldDateChanged && !lastSoldDateString.equals(imported.lastSoldDateString)) {
+            lastSoldDateString = imported.lastSoldDateString;
+            lastSoldDateInt = imported.lastSoldDateInt;
+            changed = true;
+        }
+        return changed;
+    }
+
     /**
      * Converts a date string to an integer for comparison, if in the correct format. If invalid, sets to 0.
      * @param dateString / seperated date in DD/MM/YYYY format
@@ -265,84 +357,46 @@ public class Tyre implements Parcelable {
         }
     }
 
-    public StoredTyre ToStoredTyre() {
-        StoredTyre storedTyre = new StoredTyre();
-        storedTyre.id = id;
-        storedTyre.part = part;
-        storedTyre.supplierPartCode = supplierPartCode;
-        storedTyre.description = description;
-        storedTyre.location = location;
-        storedTyre.seen = seen;
-        storedTyre.lastSoldDateString = lastSoldDateString;
-        storedTyre.lastSoldDateChanged = lastSoldDateChanged;
-        storedTyre.extraComment = extraComment;
-        storedTyre.isEdited = isEdited;
-        storedTyre.isAdded = isAdded;
-        storedTyre.isDone = isDone;
-        return storedTyre;
-    }
-
-    public void FromStoredTyre(StoredTyre storedTyre) {
-        part = storedTyre.part;
+    public TyreComment GetPartComment() {
+        return part;
+    }
+
+    public TyreComment GetSupplierPartCodeComment() {
+        return supplierPartCode;
+    }
+
+    public TyreComment GetDescriptionComment() {
+        return description;
+    }
+
+    public TyreComment GetLocationComment() {
+        return location;
+    }
+
+    /**
+     * Restores the editable state of a saved tyre over this one. Stock is kept, as it comes from the import.
+     */
+    public void Restore(TyreComment part, TyreComment supplierPartCode, TyreComment description, TyreComment location,
+                        String seen, String lastSoldDate, boolean lastSoldDateChanged, String extraComment,
+                        boolean isEdited, boolean isAdded, boolean isDone) {
+        this.part = part;
         TryParsePartNumber(part.GetString(true, null));
-        supplierPartCode = storedTyre.supplierPartCode;
-        description = storedTyre.description;
-        location = storedTyre.location;
-        seen = storedTyre.seen;
+        this.supplierPartCode = supplierPartCode;
+        this.description = description;
+        this.location = location;
+        this.seen = seen;
         try {
             Integer.parseUnsignedInt(seen);
             seenIsNumber = true;
         } catch (NumberFormatException ignored) {
             seenIsNumber = false;
         }
-        lastSoldDateString = storedTyre.lastSoldDateString;
+        lastSoldDateString = lastSoldDate;
         TryParseDate(lastSoldDateString);
-        lastSoldDateChanged = storedTyre.lastSoldDateChanged;
-        extraComment = storedTyre.extraComment;
-        isEdited = storedTyre.isEdited;
-        isAdded = storedTyre.isAdded;
-        isDone = storedTyre.isDone;
-    }
-
-    @Override
-    public int describeContents() {
-        return 0;
-    }
-
-    @Override
-    public void writeToParcel(@NonNull Parcel parcel, int flags) {
-        parcel.writeInt(id);
-        parcel.writeParcelable(part, 0);
-        parcel.writeInt(partNumber);
-        parcel.writeParcelable(supplierPartCode, 0);
-        parcel.writeParcelable(description, 0);
-        parcel.writeParcelable(location, 0);
-        parcel.writeString(stock);
-        parcel.writeString(seen);
-        parcel.writeString(lastSoldDateString);
-        parcel.writeInt(lastSoldDateInt);
-    }
-
-    public static final Parcelable.Creator<Tyre> CREATOR = new Parcelable.Creator<Tyre>() {
-        public Tyre createFromParcel(Parcel in) {
-            return new Tyre(in);
-        }
-
-        public Tyre[] newArray(int size) {
-            return new Tyre[size];
-        }
-    };
-
-    private Tyre(Parcel in) {
-        id = in.readInt();
-        part = in.readParcelable(TyreComment.class.getClassLoader());
-        partNumber = in.readInt();
-        supplierPartCode = in.readParcelable(TyreComment.class.getClassLoader());
-        description = in.readParcelable(TyreComment.class.getClassLoader());
-        location = in.readParcelable(TyreComment.class.getClassLoader());
-        stock = in.readString();
-        seen = in.readString();
-        lastSoldDateString = in.readString();
-        lastSoldDateInt = in.readInt();
+        this.lastSoldDateChanged = lastSoldDateChanged;
+        this.extraComment = extraComment;
+        this.isEdited = isEdited;
+        this.isAdded = isAdded;
+        this.isDone = isDone;
     }
 }
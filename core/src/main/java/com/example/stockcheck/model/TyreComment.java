@@ -0,0 +1,548 @@
+package com.example.stockcheck.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.CharBuffer;
+
+/**
+ * Stores a string and all edits (deletions and insertions), with a method to get an html-annotated string of the changes.
+ * The history of past and present characters is a piece table: a buffer holding the original string followed by every
+ * inserted block, and a list of pieces of that buffer, each unchanged, deleted or inserted. An edit splits at most two
+ * pieces and touches only the pieces it covers, so its cost depends on the number of pieces rather than characters.
+ * Edits are given as the change a text field reports, so typing does no work proportional to the length of the string.
+ */
+public class TyreComment implements Serializable {
+
+    private static final long serialVersionUID = 4L;
+
+    /**
+     * Receives the runs of characters of a comment's history, in order. Neighbouring runs may have the same type.
+     */
+    public interface RunVisitor {
+        void Run(CharSequence text, int start, int end, Tyre.CharType type);
+    }
+
+    /**
+     * Renders a comment, such as into styled text for display. Renderers that are equal give the same result for the
+     * same comment, so a result can be reused until the comment is edited.
+     */
+    public interface Renderer<T> {
+        T Render(TyreComment comment);
+    }
+
+    // Types of the pieces in the history
+    private static final byte UNCHANGED = 0;
+    private static final byte DELETED = 1;
+    private static final byte INSERTED = 2;
+
+    // Version of the format written by GetEncoded
+    private static final int ENCODING_VERSION = 1;
+
+    // Current string, or null if it has changed since it was last built
+    private String rawField;
+    // Length of the current string, once editing has started
+    private int visibleLength;
+    // The original string followed by every inserted block, from index 0 to bufferLength
+    private char[] buffer;
+    private int bufferLength;
+    // Pieces of the buffer making up the history of past and present characters, in order
+    private int[] pieceOffsets;
+    private int[] pieceLengths;
+    private byte[] pieceTypes;
+    private int pieceCount;
+    // Last rendered result, and the renderer that made it, cleared by edits
+    private transient Renderer<?> renderedBy;
+    private transient Object rendered;
+
+    /**
+     * Constructor taking the initial string
+     * @param data Initial string
+     */
+    public TyreComment(String data) {
+        this.rawField = data;
+    }
+
+    /**
+     * Returns either the raw string, or the html-annotated string with changes.
+     * @param getRaw Whether to get the raw string
+     * @param markup Tags placed around changes, may be null when getRaw is true
+     * @return String
+     */
+    public String GetString(boolean getRaw, CommentMarkup markup) {
+        if (buffer == null || getRaw) {
+            return GetRawField();
+        } else {
+            StringBuilder builder = new StringBuilder(bufferLength + 64);
+            byte prevType = UNCHANGED;
+            for (int p = 0; p < pieceCount; p++) {
+                byte newType = pieceTypes[p];
+                if (prevType != newType) {
+                    // Add end tag of the previous run, and start tag of the new one
+                    if (prevType != UNCHANGED) builder.append(prevType == INSERTED ? markup.insertedEnd : markup.deletedEnd);
+                    if (newType != UNCHANGED) builder.append(newType == INSERTED ? markup.insertedStart : markup.deletedStart);
+                    prevType = newType;
+                }
+                builder.append(buffer, pieceOffsets[p], pieceLengths[p]);
+            }
+            if (prevType != UNCHANGED) builder.append(prevType == INSERTED ? markup.insertedEnd : markup.deletedEnd);
+            return builder.toString();
+        }
+    }
+
+    /**
+     * @return The string before any edits, made of the unchanged and deleted characters
+     */
+    public String GetOriginal() {
+        if (buffer == null) return GetRawField();
+        StringBuilder builder = new StringBuilder(bufferLength);
+        for (int p = 0; p < pieceCount; p++) {
+            if (pieceTypes[p] != INSERTED) builder.append(buffer, pieceOffsets[p], pieceLengths[p]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Visits the runs of unchanged, deleted and inserted characters, the same runs GetString marks up
+     * @param visitor Visitor given each run
+     */
+    public void VisitRuns(RunVisitor visitor) {
+        if (buffer == null) {
+            String rawField = GetRawField();
+            if (!rawField.isEmpty()) visitor.Run(rawField, 0, rawField.length(), Tyre.CharType.UNCHANGED);
+            return;
+        }
+        CharSequence text = CharBuffer.wrap(buffer);
+        for (int p = 0; p < pieceCount; p++) {
+            Tyre.CharType type = pieceTypes[p] == INSERTED ? Tyre.CharType.INSERTED
+                    : pieceTypes[p] == DELETED ? Tyre.CharType.DELETED : Tyre.CharType.UNCHANGED;
+            visitor.Run(text, pieceOffsets[p], pieceOffsets[p] + pieceLengths[p], type);
+        }
+    }
+
+    /**
+     * Renders the comment, reusing the last result if it was made by an equal renderer and the comment has not been
+     * edited since
+     * @param renderer Renderer to use
+     * @return Rendered comment
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T GetRendered(Renderer<T> renderer) {
+        if (rendered == null || !renderer.equals(renderedBy)) {
+            rendered = renderer.Render(this);
+            renderedBy = renderer;
+        }
+        return (T) rendered;
+    }
+
+    /**
+     * Updates the comment with a new one, finding the change by comparing it with the current string.
+     * @param newComment Edited comment, with any one block of characters replaced
+     */
+    public void Edit(String newComment) {
+        String oldComment = GetRawField();
+        // Find the common start and end of the strings, the replaced block is between them
+        int start = 0;
+        int maxLength = Math.min(oldComment.length(), newComment.length());
+        while (start < maxLength && oldComment.charAt(start) == newComment.charAt(start)) start++;
+        int end = 0;
+        while (end < maxLength - start
+                && oldComment.charAt(oldComment.length() - 1 - end) == newComment.charAt(newComment.length() - 1 - end)) end++;
+        Edit(newComment, start, oldComment.length() - start - end, newComment.length() - start - end);
+    }
+
+    /**
+     * Updates the comment with a change, as reported by a text field. Text fields often report more than changed, such
+     * as a whole word replaced while composing, or all the text replaced with itself when restored, so text at the
+     * start and end of a replacement that is the same as before is left unchanged. The rest of a replacement is
+     * recorded as a deletion followed by an insertion.
+     * @param newComment Edited comment
+     * @param start Index of the first changed character
+     * @param removed Number of characters removed from the current string at start
+     * @param inserted Number of characters of newComment inserted at start
+     */
+    public void Edit(CharSequence newComment, int start, int removed, int inserted) {
+        rendered = null;
+        renderedBy = null;
+        try {
+            if (buffer == null) {
+                // Initialise history for editing, as one unchanged piece
+                buffer = rawField.toCharArray();
+                bufferLength = buffer.length;
+                visibleLength = bufferLength;
+                pieceOffsets = new int[4];
+                pieceLengths = new int[4];
+                pieceTypes = new byte[4];
+                pieceCount = 0;
+                if (bufferLength > 0) AddPiece(0, 0, bufferLength, UNCHANGED);
+            }
+            if (removed > 0 && inserted > 0) {
+                // Trim the text the removed and inserted blocks have in common
+                char[] removedChars = GetVisibleChars(start, removed);
+                int prefix = 0;
+                while (prefix < removed && prefix < inserted && removedChars[prefix] == newComment.charAt(start + prefix)) prefix++;
+                int suffix = 0;
+                while (suffix < removed - prefix && suffix < inserted - prefix
+                        && removedChars[removed - 1 - suffix] == newComment.charAt(start + inserted - 1 - suffix)) suffix++;
+                start += prefix;
+                removed -= prefix + suffix;
+                inserted -= prefix + suffix;
+            }
+            if (removed > 0) Delete(start, removed);
+            if (inserted > 0) Insert(start, newComment, start, inserted);
+            // A text field's contents are not kept, the string is built again when it is next needed
+            rawField = newComment instanceof String ? (String) newComment : null;
+        } catch (Exception e) {
+            System.out.println(e.toString());
+        }
+    }
+
+    /**
+     * @return Current string, built from the history if it has changed
+     */
+    private String GetRawField() {
+        if (rawField == null) {
+            StringBuilder builder = new StringBuilder(visibleLength);
+            for (int p = 0; p < pieceCount; p++) {
+                if (pieceTypes[p] != DELETED) builder.append(buffer, pieceOffsets[p], pieceLengths[p]);
+            }
+            rawField = builder.toString();
+        }
+        return rawField;
+    }
+
+    /**
+     * Copies characters of the current string
+     * @param start Index of the first character
+     * @param count Number of characters
+     * @return The characters
+     */
+    private char[] GetVisibleChars(int start, int count) {
+        char[] chars = new char[count];
+        if (rawField != null) {
+            rawField.getChars(start, start + count, chars, 0);
+            return chars;
+        }
+        int visibleStart = 0;
+        for (int p = 0; p < pieceCount && visibleStart < start + count; p++) {
+            if (pieceTypes[p] == DELETED) continue;
+            int from = Math.max(start, visibleStart);
+            int to = Math.min(start + count, visibleStart + pieceLengths[p]);
+            if (from < to) System.arraycopy(buffer, pieceOffsets[p] + from - visibleStart, chars, from - start, to - from);
+            visibleStart += pieceLengths[p];
+        }
+        return chars;
+    }
+
+    /**
+     * Deletes visible characters. Inserted characters are removed from the history as they don't need to be
+     * displayed, unchanged characters become deleted as they need to be displayed.
+     * @param start Index in the raw string of the first deleted character
+     * @param count Number of deleted characters
+     */
+    private void Delete(int start, int count) {
+        int first = SplitBeforeVisible(start);
+        int end = SplitBeforeVisible(start + count - 1) + 1;
+        SplitPiece(end - 1, 1);
+        int write = first;
+        for (int p = first; p < end; p++) {
+            if (pieceTypes[p] == INSERTED) continue;
+            pieceOffsets[write] = pieceOffsets[p];
+            pieceLengths[write] = pieceLengths[p];
+            pieceTypes[write] = DELETED;
+            write++;
+        }
+        RemovePieces(write, end - write);
+        MergePieces(Math.max(0, first - 1), Math.min(pieceCount, write + 1));
+        visibleLength -= count;
+    }
+
+    /**
+     * Inserts a block of characters before the visible character at the start index, or after the last visible
+     * character if the block is appended
+     * @param start Index in the raw string where the block is inserted
+     * @param source Text holding the inserted characters
+     * @param sourceStart Index in source of the first inserted character
+     * @param count Number of inserted characters
+     */
+    private void Insert(int start, CharSequence source, int sourceStart, int count) {
+        int at;
+        if (start < visibleLength) {
+            at = SplitBeforeVisible(start);
+        } else if (visibleLength > 0) {
+            at = SplitBeforeVisible(visibleLength - 1) + 1;
+            SplitPiece(at - 1, 1);
+        } else {
+            at = 0;
+        }
+        int offset = bufferLength;
+        if (bufferLength + count > buffer.length) {
+            char[] grown = new char[Math.max(bufferLength + count, buffer.length + (buffer.length >> 1))];
+            System.arraycopy(buffer, 0, grown, 0, bufferLength);
+            buffer = grown;
+        }
+        for (int i = 0; i < count; i++) buffer[bufferLength + i] = source.charAt(sourceStart + i);
+        bufferLength += count;
+        if (at > 0 && pieceTypes[at - 1] == INSERTED && pieceOffsets[at - 1] + pieceLengths[at - 1] == offset) {
+            // Typing at the end of the last inserted block extends its piece
+            pieceLengths[at - 1] += count;
+        } else {
+            AddPiece(at, offset, count, INSERTED);
+        }
+        visibleLength += count;
+    }
+
+    /**
+     * Splits the history so that a visible character starts a piece
+     * @param visibleIndex Index in the raw string of the character
+     * @return Index of the piece starting with the character
+     */
+    private int SplitBeforeVisible(int visibleIndex) {
+        int remaining = visibleIndex;
+        for (int p = 0; p < pieceCount; p++) {
+            if (pieceTypes[p] == DELETED) continue;
+            if (remaining < pieceLengths[p]) {
+                if (remaining == 0) return p;
+                SplitPiece(p, remaining);
+                return p + 1;
+            }
+            remaining -= pieceLengths[p];
+        }
+        throw new IndexOutOfBoundsException("Visible index " + visibleIndex + " out of range");
+    }
+
+    /**
+     * Splits a piece in two, if the split is inside it
+     * @param p Index of the piece
+     * @param length Length of the first half
+     */
+    private void SplitPiece(int p, int length) {
+        if (length >= pieceLengths[p]) return;
+        AddPiece(p + 1, pieceOffsets[p] + length, pieceLengths[p] - length, pieceTypes[p]);
+        pieceLengths[p] = length;
+    }
+
+    /**
+     * Inserts a piece into the list
+     */
+    private void AddPiece(int p, int offset, int length, byte type) {
+        if (pieceCount == pieceOffsets.length) {
+            int capacity = pieceCount + (pieceCount >> 1) + 1;
+            int[] offsets = new int[capacity];
+            int[] lengths = new int[capacity];
+            byte[] types = new byte[capacity];
+            System.arraycopy(pieceOffsets, 0, offsets, 0, pieceCount);
+            System.arraycopy(pieceLengths, 0, lengths, 0, pieceCount);
+            System.arraycopy(pieceTypes, 0, types, 0, pieceCount);
+            pieceOffsets = offsets;
+            pieceLengths = lengths;
+            pieceTypes = types;
+        }
+        System.arraycopy(pieceOffsets, p, pieceOffsets, p + 1, pieceCount - p);
+        System.arraycopy(pieceLengths, p, pieceLengths, p + 1, pieceCount - p);
+        System.arraycopy(pieceTypes, p, pieceTypes, p + 1, pieceCount - p);
+        pieceOffsets[p] = offset;
+        pieceLengths[p] = length;
+        pieceTypes[p] = type;
+        pieceCount++;
+    }
+
+    /**
+     * Removes pieces from the list
+     */
+    private void RemovePieces(int p, int count) {
+        if (count == 0) return;
+        System.arraycopy(pieceOffsets, p + count, pieceOffsets, p, pieceCount - p - count);
+        System.arraycopy(pieceLengths, p + count, pieceLengths, p, pieceCount - p - count);
+        System.arraycopy(pieceTypes, p + count, pieceTypes, p, pieceCount - p - count);
+        pieceCount -= count;
+    }
+
+    /**
+     * Joins neighbouring pieces of the same type that continue each other in the buffer, so repeated edits in one
+     * place don't fragment the history
+     * @param from Index of the first piece to check
+     * @param to Index after the last piece to check
+     */
+    private void MergePieces(int from, int to) {
+        int p = from;
+        while (p + 1 < to && p + 1 < pieceCount) {
+            if (pieceTypes[p] == pieceTypes[p + 1] && pieceOffsets[p] + pieceLengths[p] == pieceOffsets[p + 1]) {
+                pieceLengths[p] += pieceLengths[p + 1];
+                RemovePieces(p + 1, 1);
+                to--;
+            } else {
+                p++;
+            }
+        }
+    }
+
+    public String GetSerialised() {
+        StringBuilder builder = new StringBuilder();
+        String rawField = GetRawField();
+        if (buffer == null) {
+            builder.append(rawField.length()).append(":0;").append(rawField);
+        } else {
+            int historyLength = 0;
+            for (int p = 0; p < pieceCount; p++) historyLength += pieceLengths[p];
+            builder.append(rawField.length()).append(':')
+                    .append(historyLength).append(';')
+                    .append(rawField);
+            for (int p = 0; p < pieceCount; p++) {
+                builder.append(buffer, pieceOffsets[p], pieceLengths[p]);
+            }
+            for (int p = 0; p < pieceCount; p++) {
+                char letter = pieceTypes[p] == INSERTED ? 'I' : pieceTypes[p] == DELETED ? 'D' : 'U';
+                for (int i = 0; i < pieceLengths[p]; i++) builder.append(letter);
+            }
+            int historyIndex = 0;
+            int visibleIndex = 0;
+            for (int p = 0; p < pieceCount; p++) {
+                if (pieceTypes[p] != DELETED) {
+                    for (int i = 0; i < pieceLengths[p]; i++) {
+                        builder.append(visibleIndex++).append(':').append(historyIndex + i).append(';');
+                    }
+                }
+                historyIndex += pieceLengths[p];
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets the comment in the compact binary format, versioned by its first byte. The history is stored as runs of one
+     * type, each a varint of its length and type, followed by its characters as varints, so ASCII text takes a byte
+     * per character. The current string and the map to the history are derived from the runs when decoded.
+     * @return Encoded comment
+     */
+    public byte[] GetEncoded() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bufferLength + 16);
+        out.write(ENCODING_VERSION);
+        if (buffer == null || pieceCount == 0) {
+            // Unedited or empty, stored as no runs then the string
+            String rawField = GetRawField();
+            WriteVarint(out, 0);
+            WriteVarint(out, rawField.length());
+            for (int i = 0; i < rawField.length(); i++) WriteVarint(out, rawField.charAt(i));
+        } else {
+            // Neighbouring pieces of one type are written as one run
+            int runCount = 0;
+            for (int p = 0; p < pieceCount; p++) {
+                if (p == 0 || pieceTypes[p] != pieceTypes[p - 1]) runCount++;
+            }
+            WriteVarint(out, runCount);
+            for (int p = 0; p < pieceCount; ) {
+                int runLength = 0;
+                int q = p;
+                for (; q < pieceCount && pieceTypes[q] == pieceTypes[p]; q++) runLength += pieceLengths[q];
+                WriteVarint(out, runLength << 2 | pieceTypes[p]);
+                p = q;
+            }
+            for (int p = 0; p < pieceCount; p++) {
+                for (int i = pieceOffsets[p]; i < pieceOffsets[p] + pieceLengths[p]; i++) WriteVarint(out, buffer[i]);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Replaces the comment with one encoded by GetEncoded
+     * @param data Encoded comment
+     * @throws IllegalArgumentException If the data is not in a known version of the format, or is truncated
+     */
+    public void Decode(byte[] data) {
+        if (data.length == 0 || data[0] != ENCODING_VERSION) {
+            throw new IllegalArgumentException("Unknown comment encoding " + (data.length == 0 ? "(empty)" : data[0]));
+        }
+        int[] position = {1};
+        rendered = null;
+        renderedBy = null;
+        buffer = null;
+        bufferLength = 0;
+        pieceOffsets = null;
+        pieceLengths = null;
+        pieceTypes = null;
+        pieceCount = 0;
+        try {
+            int runCount = ReadVarint(data, position);
+            if (runCount == 0) {
+                char[] chars = new char[ReadVarint(data, position)];
+                for (int i = 0; i < chars.length; i++) chars[i] = (char) ReadVarint(data, position);
+                rawField = new String(chars);
+                visibleLength = chars.length;
+                return;
+            }
+            pieceOffsets = new int[runCount];
+            pieceLengths = new int[runCount];
+            pieceTypes = new byte[runCount];
+            visibleLength = 0;
+            for (int r = 0; r < runCount; r++) {
+                int run = ReadVarint(data, position);
+                byte type = (byte) (run & 3);
+                AddPiece(pieceCount, bufferLength, run >>> 2, type);
+                bufferLength += run >>> 2;
+                if (type != DELETED) visibleLength += run >>> 2;
+            }
+            buffer = new char[bufferLength];
+            for (int i = 0; i < bufferLength; i++) buffer[i] = (char) ReadVarint(data, position);
+            rawField = null;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated comment encoding");
+        }
+    }
+
+    private static void WriteVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int ReadVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    public void Deserialise(String s) {
+        int sizeMarkerIndex = s.indexOf(';');
+        int dataStartIndex = sizeMarkerIndex + 1;
+        String[] sizeStrings = s.substring(0, sizeMarkerIndex).split(":");
+        int[] sizes = new int[2];
+        for (int i = 0; i < 2; i++) { sizes[i] = Integer.parseUnsignedInt(sizeStrings[i]); }
+        rawField = s.substring(dataStartIndex, dataStartIndex + sizes[0]);
+        visibleLength = sizes[0];
+        rendered = null;
+        renderedBy = null;
+        buffer = null;
+        bufferLength = 0;
+        pieceOffsets = null;
+        pieceLengths = null;
+        pieceTypes = null;
+        pieceCount = 0;
+        if (sizes[1] != 0) {
+            dataStartIndex += sizes[0];
+            buffer = new char[sizes[1]];
+            s.getChars(dataStartIndex, dataStartIndex + sizes[1], buffer, 0);
+            bufferLength = sizes[1];
+            dataStartIndex += sizes[1];
+            pieceOffsets = new int[4];
+            pieceLengths = new int[4];
+            pieceTypes = new byte[4];
+            // Each run of one type letter becomes a piece. The stored map is always the visible characters in order,
+            // so it is derived from the pieces rather than parsed.
+            for (int i = 0; i < sizes[1]; i++) {
+                char letter = s.charAt(dataStartIndex + i);
+                byte type = letter == 'I' ? INSERTED : letter == 'D' ? DELETED : UNCHANGED;
+                if (pieceCount > 0 && pieceTypes[pieceCount - 1] == type) {
+                    pieceLengths[pieceCount - 1]++;
+                } else {
+                    AddPiece(pieceCount, i, 1, type);
+                }
+            }
+        }
+    }
+}
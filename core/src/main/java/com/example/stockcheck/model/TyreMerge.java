@@ -0,0 +1,77 @@
+package com.example.stockcheck.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Merges a newer import of a stock file into the tyres of a stock check in progress. Tyres are matched on their part
+ * field as it was imported, so editing a part does not stop it matching. Matching is a hash join, so merging stays
+ * linear however large the file is. Tyres keep their ids, so saved edits still match them.
+ */
+public class TyreMerge {
+
+    /**
+     * Counts of how the imported tyres were merged
+     */
+    public static class Result {
+        /**
+         * Matched tyres whose stock or last sold date changed
+         */
+        public int updated = 0;
+        public int unchanged = 0;
+        /**
+         * Imported tyres with no match, added to the end of the list
+         */
+        public int added = 0;
+        /**
+         * Tyres in the stock check that are not in the import, which are kept as they are
+         */
+        public int missing = 0;
+    }
+
+    /**
+     * Merges imported tyres into a tyre list. Each matched tyre has its stock and last sold date updated, keeping
+     * seen counts, comments and done flags. If several tyres have the same part, they are matched in list order.
+     * @param tyreList Tyres of the stock check, which is changed in place
+     * @param importedTyres Tyres of the newer import
+     * @return Counts of how the tyres were merged
+     */
+    public static Result Merge(ArrayList<Tyre> tyreList, List<Tyre> importedTyres) {
+        Result result = new Result();
+        int originalSize = tyreList.size();
+        // Build a chain of list indexes for each part, in list order, ending with -1
+        HashMap<String, Integer> firstIndexes = new HashMap<>(originalSize * 4 / 3 + 1);
+        int[] nextIndexes = new int[originalSize];
+        int nextId = 0;
+        for (int i = originalSize - 1; i >= 0; i--) {
+            Tyre tyre = tyreList.get(i);
+            Integer next = firstIndexes.put(tyre.GetImportedPart(), i);
+            nextIndexes[i] = next == null ? -1 : next;
+            nextId = Math.max(nextId, tyre.GetId() + 1);
+        }
+        boolean[] matched = new boolean[originalSize];
+        for (Tyre imported : importedTyres) {
+            String part = imported.GetPart(true, null);
+            Integer index = firstIndexes.get(part);
+            if (index == null || index == -1) {
+                tyreList.add(new Tyre(nextId++, part, imported.GetSupplierPartCode(true, null), imported.GetDescription(true, null),
+                        imported.GetLocation(true, null), imported.GetStockText(), imported.GetLastSoldDate(true), false));
+                result.added++;
+                continue;
+            }
+            // Move the chain on, so a later tyre with the same part matches the next one
+            firstIndexes.put(part, nextIndexes[index]);
+            matched[index] = true;
+            if (tyreList.get(index).MergeImport(imported)) {
+                result.updated++;
+            } else {
+                result.unchanged++;
+            }
+        }
+        for (int i = 0; i < originalSize; i++) {
+            if (!matched[i]) result.missing++;
+        }
+        return result;
+    }
+}
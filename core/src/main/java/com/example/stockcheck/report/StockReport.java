@@ -0,0 +1,110 @@
+package com.example.stockcheck.report;
+
+import com.example.stockcheck.model.CommentMarkup;
+import com.example.stockcheck.model.Tyre;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The printable stock check report, listing every tyre that was edited, has seen not matching stock, or has stock.
+ */
+public class StockReport {
+
+    private StockReport() {}
+
+    /**
+     * Generates the report as a html page
+     * @param tyres Tyres in the order they are listed, usually sorted by part number
+     * @param markup Tags placed around edits to fields
+     * @param date Date shown at the top of the report
+     * @return Html string of the report
+     */
+    public static String Html(Iterable<Tyre> tyres, CommentMarkup markup, LocalDate date) {
+        StringBuilder htmlTable = new StringBuilder("<head><meta charset=\"UTF-8\"><style>@page{margin:20px;margin-bottom:35px;@bottom-center{content:counter(page)\" of \"counter(pages);margin-bottom:30px;}}" +
+                "table{page-break-after:auto;}tr{page-break-inside:avoid;page-break-after:auto}td{page-break-inside:avoid;page-break-after:auto}" +
+                "table,th,td{border:0.1pt solid DarkGray;border-collapse:collapse;font-size:12px;color:DimGrey;}" +
+                "th{text-align:left;}th,td{padding:1px;}u{text-decoration-color:#007700;}" +
+                "s{text-decoration-color:#770000;}</style></head><body>");
+        htmlTable.append("<h3>").append(date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).append("</h3>");
+        htmlTable.append("<table><tr><th></th><th>Part</th><th style=\"width:20%\">Supplier Part Code</th><th>Description</th><th>Location</th><th>Stock</th><th>Seen</th><th>Last Sold</th></tr>");
+        for (Tyre tyre : tyres) {
+            if (!IsReported(tyre)) continue;
+            boolean seenMatchesStock = SeenMatchesStock(tyre);
+            htmlTable.append("<tr><td style=\"color:Black;width:1%;\">")
+                    .append(tyre.IsAdded() ? "✚" : (tyre.IsEdited() || !seenMatchesStock) ? "●" : "")
+                    .append("</td><td>")
+                    .append(tyre.GetPart(false, markup))
+                    .append("</td><td>")
+                    .append(tyre.GetSupplierPartCode(false, markup))
+                    .append("</td><td>")
+                    .append(tyre.GetDescription(false, markup))
+                    .append("</td><td>")
+                    .append(tyre.GetLocation(false, markup))
+                    .append("</td><td style=\"text-align:center;" + (!seenMatchesStock ? "color:#770000;" : "") + "\">" + (!seenMatchesStock ? "<b>" : ""))
+                    .append(tyre.GetStock())
+                    .append((!seenMatchesStock ? "</b>" : "") + "</td><td style=\"text-align:center;" + (!seenMatchesStock ? "color:#770000;" : "") + "\">" + (!seenMatchesStock ? "<b>" : ""))
+                    .append(tyre.GetSeen())
+                    .append((!seenMatchesStock ? "</b>" : "") + "</td><td>")
+                    .append(tyre.GetLastSoldDate(false))
+                    .append("</tr>");
+            if (!tyre.GetComment(true).isBlank()) htmlTable.append("<tr><td colspan=\"8\">▲ ")
+                    .append(tyre.GetComment(false))
+                    .append("</td></tr>");
+        }
+        htmlTable.append("</table></body>");
+        return htmlTable.toString();
+    }
+
+    /**
+     * @return Whether a tyre is listed in the report: it was edited, its seen does not match its stock, or it has stock
+     */
+    public static boolean IsReported(Tyre tyre) {
+        int stockNum;
+        try {
+            stockNum = Integer.parseInt(tyre.GetStock());
+        } catch (Exception e) {
+            stockNum = -1;
+        }
+        return tyre.IsEdited() || !SeenMatchesStock(tyre) || stockNum > 0;
+    }
+
+    /**
+     * @return Whether a tyre's seen text, or the sum of its slash separated counts, matches its stock
+     */
+    public static boolean SeenMatchesStock(Tyre tyre) {
+        if (tyre.GetSeen().equals(tyre.GetStock())) return true;
+        try {
+            return CountSeen(tyre.GetSeen()) == Integer.parseInt(tyre.GetStock());
+        } catch (Exception ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * Counts a seen value, which is either a number or numbers separated by slashes
+     * @param seen Seen text
+     * @return Total count
+     * @throws Exception If the text is not an integer, or integers separated by slashes
+     */
+    public static int CountSeen(String seen) throws Exception {
+        int count = 0;
+        try {
+            if (seen.contains("/")) {
+                String[] splits = seen.split("/");
+                for (String s : splits) {
+                    count += Integer.parseUnsignedInt(s);
+                }
+            } else if (seen.contains("\\")) {
+                String[] splits = seen.split("\\\\");
+                for (String s : splits) {
+                    count += Integer.parseUnsignedInt(s);
+                }
+            } else {
+                count = Integer.parseUnsignedInt(seen);
+            }
+            return count;
+        } catch (Exception ignored) {
+            throw new Exception("Not an integer, or integers separated by slashes");
+        }
+    }
+}
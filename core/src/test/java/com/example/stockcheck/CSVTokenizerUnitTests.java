@@ -0,0 +1,177 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.filemanagement.BatchingTyreSink;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.CSVTokenizer;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class CSVTokenizerUnitTests {
+
+    static final String CSV_WITH_CATEGORIES =
+            "Part,Supplier Part Codes,Description,Location,Cost Price,Sell Price,On Stock,Category,Tyre,Models,Engines,Barcode,CompanyCode,Last Sold Date,Sell Price 2\n" +
+            "\"1954515, r15\",\"Posuere, cubilia\", 195/45 R15 80T Hendrerit,Aliquam,,,3,Tyres,,,,,,17/01/2023,\n" +
+            "1955516,\"Laoreet, Vivamus\",195/55 R16 88T Quisque,Augue,,,0,Tyres,,,,,,21/02/2012,\n" +
+            "9000001,Wiper,Wiper blade,Shelf,,,12,Parts,,,,,,01/01/2024,\n" +
+            "4155517,Nullam id,215/55 R17 87V Suspendisse,Massa,,,8,Tyres,,,,,,10/11/2023,\n" +
+            "2254518,Efficitur,225/45 R18 94W Suspendisse,\"Aliquam, Massa\",,,4.0,Tyres,,,,,,08/06/2023,";
+
+    private static CSVTokenizer Tokenizer(String csv) throws Exception {
+        return new CSVTokenizer(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void Tokenizer_Splits_Fields() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("a,b,,d");
+        assertTrue(tokenizer.NextRow());
+        assertEquals(4, tokenizer.GetFieldCount());
+        assertEquals("a", tokenizer.GetField(0));
+        assertEquals("", tokenizer.GetField(2));
+        assertEquals("d", tokenizer.GetField(3));
+        assertEquals("", tokenizer.GetField(9));
+        assertFalse(tokenizer.NextRow());
+    }
+
+    @Test
+    public void Tokenizer_Quoted_Comma() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("\"a, b\",c");
+        assertTrue(tokenizer.NextRow());
+        assertEquals("a, b", tokenizer.GetField(0));
+        assertEquals("c", tokenizer.GetField(1));
+    }
+
+    @Test
+    public void Tokenizer_Doubled_Quotes() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("\"19\"\" rim\",x");
+        assertTrue(tokenizer.NextRow());
+        assertEquals("19\" rim", tokenizer.GetField(0));
+    }
+
+    @Test
+    public void Tokenizer_Quoted_Line_Break() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("\"a\nb\",c\nd");
+        assertTrue(tokenizer.NextRow());
+        assertEquals("a\nb", tokenizer.GetField(0));
+        assertTrue(tokenizer.NextRow());
+        assertEquals("d", tokenizer.GetField(0));
+    }
+
+    @Test
+    public void Tokenizer_Line_Endings_And_Blank_Lines() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("a\r\nb\rc\n\n\r\nd\n");
+        assertTrue(tokenizer.NextRow());
+        assertEquals("a", tokenizer.GetField(0));
+        assertTrue(tokenizer.NextRow());
+        assertEquals("b", tokenizer.GetField(0));
+        assertTrue(tokenizer.NextRow());
+        assertEquals("c", tokenizer.GetField(0));
+        assertTrue(tokenizer.NextRow());
+        assertEquals("d", tokenizer.GetField(0));
+        assertFalse(tokenizer.NextRow());
+    }
+
+    @Test
+    public void Tokenizer_Skips_BOM() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("\uFEFFPart,b");
+        assertTrue(tokenizer.NextRow());
+        assertEquals("Part", tokenizer.GetField(0));
+    }
+
+    @Test
+    public void Tokenizer_Row_Larger_Than_Buffer() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) builder.append('x');
+        String longField = builder.toString();
+        CSVTokenizer tokenizer = Tokenizer("a\n" + longField + ",\u00e9\nb");
+        assertTrue(tokenizer.NextRow());
+        assertTrue(tokenizer.NextRow());
+        assertEquals(longField, tokenizer.GetField(0));
+        assertEquals("\u00e9", tokenizer.GetField(1));
+        assertTrue(tokenizer.NextRow());
+        assertEquals("b", tokenizer.GetField(0));
+    }
+
+    @Test
+    public void Tokenizer_Field_Comparisons() throws Exception {
+        CSVTokenizer tokenizer = Tokenizer("Tyres,\"Tyres\",1954515");
+        assertTrue(tokenizer.NextRow());
+        byte[] tyres = "Tyres".getBytes(StandardCharsets.UTF_8);
+        assertTrue(tokenizer.FieldEquals(0, tyres));
+        assertTrue(tokenizer.FieldEquals(1, tyres));
+        assertFalse(tokenizer.FieldEquals(2, tyres));
+        assertTrue(tokenizer.FieldStartsWith(2, new byte[] {'1'}));
+        assertFalse(tokenizer.FieldStartsWith(2, new byte[] {'2'}));
+    }
+
+    @Test
+    public void Reader_Keeps_Only_Tyres() throws Exception {
+        ArrayList<Tyre> tyres = CSVReader.Read(new ByteArrayInputStream(CSV_WITH_CATEGORIES.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, tyres.size());
+        assertEquals(0, tyres.get(0).GetId());
+        assertEquals(2, tyres.get(2).GetId());
+        assertEquals("1954515, r15", tyres.get(0).GetPart(true, null));
+        assertEquals("Posuere, cubilia", tyres.get(0).GetSupplierPartCode(true, null));
+        assertEquals(" 195/45 R15 80T Hendrerit", tyres.get(0).GetDescription(true, null));
+        assertEquals("17/01/2023", tyres.get(0).GetLastSoldDate(true));
+        assertEquals("Aliquam, Massa", tyres.get(2).GetLocation(true, null));
+        assertEquals("4", tyres.get(2).GetStock());
+    }
+
+    @Test
+    public void Reader_Default_Columns_Without_Categories() throws Exception {
+        String csv = CSV_WITH_CATEGORIES.substring(CSV_WITH_CATEGORIES.indexOf('\n') + 1);
+        ArrayList<Tyre> tyres = CSVReader.Read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, tyres.size());
+        assertEquals("1954515, r15", tyres.get(0).GetPart(true, null));
+        assertEquals("08/06/2023", tyres.get(2).GetLastSoldDate(true));
+    }
+
+    @Test
+    public void Reader_Parallel_Matches_Sequential() throws Exception {
+        StringBuilder builder = new StringBuilder(CSV_WITH_CATEGORIES.substring(0, CSV_WITH_CATEGORIES.indexOf('\n') + 1));
+        for (int i = 0; i < 40000; i++) {
+            builder.append(i % 4 == 0 ? "9" : "2").append(100000 + i).append(",\"Code\n").append(i).append("\",\"")
+                    .append(i).append("\"\" rim\",Loc,,,").append(i % 7).append(",Tyres,,,,,,01/02/2023,\r\n");
+        }
+        byte[] csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        ArrayList<Tyre> sequential = CSVReader.Read(new ByteArrayInputStream(csv), ImportFilter.Default(), CSVReader.Mode.SEQUENTIAL);
+        ArrayList<Tyre> parallel = CSVReader.Read(new ByteArrayInputStream(csv), ImportFilter.Default(), CSVReader.Mode.PARALLEL);
+        assertEquals(30000, sequential.size());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(i, parallel.get(i).GetId());
+            assertEquals(sequential.get(i).GetPart(true, null), parallel.get(i).GetPart(true, null));
+            assertEquals(sequential.get(i).GetSupplierPartCode(true, null), parallel.get(i).GetSupplierPartCode(true, null));
+            assertEquals(sequential.get(i).GetDescription(true, null), parallel.get(i).GetDescription(true, null));
+            assertEquals(sequential.get(i).GetStock(), parallel.get(i).GetStock());
+        }
+    }
+
+    @Test
+    public void Reader_Sink_Receives_Growing_Batches_In_Order() throws Exception {
+        StringBuilder builder = new StringBuilder(CSV_WITH_CATEGORIES.substring(0, CSV_WITH_CATEGORIES.indexOf('\n') + 1));
+        for (int i = 0; i < 40000; i++) {
+            builder.append(100000 + i).append(",Code,Description,Loc,,,1,Tyres,,,,,,01/02/2023,\n");
+        }
+        ArrayList<ArrayList<Tyre>> batches = new ArrayList<>();
+        BatchingTyreSink sink = new BatchingTyreSink(batches::add);
+        CSVReader.Read(new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8)), ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.PARALLEL, new ImportProgress(), sink);
+        sink.Flush();
+        assertEquals(BatchingTyreSink.FIRST_BATCH_SIZE, batches.get(0).size());
+        assertEquals(BatchingTyreSink.MAX_BATCH_SIZE, batches.get(batches.size() - 2).size());
+        int id = 0;
+        for (ArrayList<Tyre> batch : batches) {
+            for (Tyre tyre : batch) assertEquals(id++, tyre.GetId());
+        }
+        assertEquals(40000, id);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class ColumnSchemaUnitTests {
+
+    @Test
+    public void Schema_Maps_Headers_And_Column_Letters() {
+        assertEquals(0, ColumnSchema.ColumnIndex("A"));
+        assertEquals(25, ColumnSchema.ColumnIndex("Z1"));
+        assertEquals(27, ColumnSchema.ColumnIndex("AB12"));
+        assertEquals(702, ColumnSchema.ColumnIndex("aaa"));
+        assertEquals(-1, ColumnSchema.ColumnIndex("12"));
+        ColumnSchema schema = new ColumnSchema(new String[][] {
+                { "Part", "Part No" }, { "Codes" }, { "Description" }, { "Location" }, { "Stock" }, { "Sold" }, { "Category" }
+        }, new String[] { "A", "B", "C", "D", "E", "F", "AA" });
+        ColumnSchema.Layout layout = schema.MapHeader(new String[] { "Category", null, " part no ", "Codes", "Description", "Location", "Stock", "Sold", "Part" });
+        assertTrue(layout.IsFromHeader());
+        assertEquals(2, layout.GetColumn(ColumnSchema.PART));
+        assertEquals(ColumnSchema.CATEGORY, layout.GetSlot(0));
+        assertEquals(-1, layout.GetSlot(1));
+        assertEquals(-1, layout.GetSlot(8));
+        assertEquals(-1, layout.GetSlot(100));
+        ColumnSchema.Layout fallback = schema.MapHeader(new String[] { "Part", "Codes" });
+        assertFalse(fallback.IsFromHeader());
+        assertSame(schema.GetFallbackLayout(), fallback);
+        assertEquals(26, fallback.GetColumn(ColumnSchema.CATEGORY));
+    }
+
+    @Test
+    public void Reader_Uses_Schema_Header_Names() throws Exception {
+        String csv = "Type,Qty,Code,Desc,Bin,Sold,Stock Code,Alt Codes\n" +
+                "Tyres,3,2054516,205/45 R16 Rhoncus,Rack 1,02/03/2024,x,Alt\n" +
+                "Parts,1,9000001,Wiper blade,Shelf,01/01/2024,x,Alt\n";
+        ColumnSchema schema = new ColumnSchema(new String[][] {
+                { "Stock Code", "Code" }, { "Alt Codes" }, { "Desc" }, { "Bin" }, { "Qty" }, { "Sold" }, { "Type" }
+        }, new String[] { "A", "B", "C", "D", "G", "N", "H" });
+        for (CSVReader.Mode mode : CSVReader.Mode.values()) {
+            ArrayList<Tyre> tyres = new ArrayList<>();
+            CSVReader.Read(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), schema, ImportFilter.Default(), mode, new ImportProgress(), tyres::add);
+            assertEquals(1, tyres.size());
+            assertEquals("2054516", tyres.get(0).GetPart(true, null));
+            assertEquals("205/45 R16 Rhoncus", tyres.get(0).GetDescription(true, null));
+            assertEquals("3", tyres.get(0).GetStock());
+        }
+    }
+}
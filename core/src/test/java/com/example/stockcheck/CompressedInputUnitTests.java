@@ -0,0 +1,74 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportException;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class CompressedInputUnitTests {
+
+    @Test
+    public void Reader_Inflates_Gzip_And_Zip_Wrapped_Csv() throws Exception {
+        StringBuilder builder = new StringBuilder(CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.substring(0, CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.indexOf('\n') + 1));
+        for (int i = 0; i < 40000; i++) {
+            builder.append(200000 + i).append(",\"Code, ").append(i).append("\",Description,Loc,,,").append(i % 5).append(",Tyres,,,,,,01/02/2023,\n");
+        }
+        byte[] csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzip)) {
+            gzipOutputStream.write(csv);
+        }
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zip)) {
+            zipOutputStream.putNextEntry(new ZipEntry("readme.txt"));
+            zipOutputStream.write("Nightly export".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.putNextEntry(new ZipEntry("branch/STOCK.CSV"));
+            zipOutputStream.write(csv);
+        }
+        ArrayList<Tyre> expected = CSVReader.Read(ByteBuffer.wrap(csv), ImportFilter.Default(), CSVReader.Mode.SEQUENTIAL);
+        for (byte[] compressed : new byte[][] { gzip.toByteArray(), zip.toByteArray() }) {
+            ImportProgress progress = new ImportProgress();
+            ArrayList<Tyre> fromBuffer = new ArrayList<>();
+            CSVReader.Read(ByteBuffer.wrap(compressed), ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.PARALLEL, progress, fromBuffer::add);
+            // Bytes read counts the compressed file
+            assertEquals(compressed.length, progress.GetBytesRead());
+            ArrayList<Tyre> fromStream = CSVReader.Read(new ByteArrayInputStream(compressed), ImportFilter.Default(), CSVReader.Mode.PARALLEL);
+            for (ArrayList<Tyre> tyres : Arrays.asList(fromBuffer, fromStream)) {
+                assertEquals(expected.size(), tyres.size());
+                for (int i = 0; i < expected.size(); i += 997) {
+                    assertEquals(i, tyres.get(i).GetId());
+                    assertEquals(expected.get(i).GetSupplierPartCode(true, null), tyres.get(i).GetSupplierPartCode(true, null));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void Reader_Rejects_Zip_Without_Csv() throws Exception {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zip)) {
+            zipOutputStream.putNextEntry(new ZipEntry("xl/workbook.xml"));
+            zipOutputStream.write("<workbook/>".getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            CSVReader.Read(new ByteArrayInputStream(zip.toByteArray()));
+            fail();
+        } catch (ImportException e) {
+            assertEquals(ImportException.Reason.INVALID_FILE, e.GetReason());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class ImportFilterUnitTests {
+
+    @Test
+    public void Filter_Accepts_Strings() {
+        ImportFilter filter = ImportFilter.Default();
+        assertTrue(filter.Accepts("Tyres", "2254518"));
+        assertFalse(filter.Accepts("Tyres", "4254518"));
+        assertFalse(filter.Accepts("Parts", "2254518"));
+        assertFalse(filter.Accepts("Tyres", ""));
+        assertTrue(new ImportFilter(new String[0], new String[0]).Accepts("", ""));
+    }
+
+    @Test
+    public void Reader_Custom_Filter() throws Exception {
+        ImportFilter filter = new ImportFilter(new String[] { "Parts", "Tyres" }, new String[] { "90", "4" });
+        ArrayList<Tyre> rows = CSVReader.Read(new ByteArrayInputStream(CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.getBytes(StandardCharsets.UTF_8)), filter, CSVReader.Mode.SEQUENTIAL);
+        assertEquals(2, rows.size());
+        assertEquals("9000001", rows.get(0).GetPart(true, null));
+        assertEquals("4155517", rows.get(1).GetPart(true, null));
+    }
+}
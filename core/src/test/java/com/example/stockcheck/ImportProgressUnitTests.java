@@ -0,0 +1,60 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportException;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class ImportProgressUnitTests {
+
+    @Test
+    public void Reader_Progress_Counts_Rows_And_Bytes() throws Exception {
+        byte[] csv = CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.getBytes(StandardCharsets.UTF_8);
+        for (CSVReader.Mode mode : CSVReader.Mode.values()) {
+            ImportProgress bufferProgress = new ImportProgress();
+            CSVReader.Read(ByteBuffer.wrap(csv), ColumnSchema.Default(), ImportFilter.Default(), mode, bufferProgress, tyre -> {});
+            assertEquals(csv.length, bufferProgress.GetBytesRead());
+            assertEquals(5, bufferProgress.GetRowsSeen());
+            ImportProgress streamProgress = new ImportProgress();
+            CSVReader.Read(new ByteArrayInputStream(csv), ColumnSchema.Default(), ImportFilter.Default(), mode, streamProgress, tyre -> {});
+            assertEquals(csv.length, streamProgress.GetBytesRead());
+            assertEquals(5, streamProgress.GetRowsSeen());
+        }
+    }
+
+    @Test
+    public void Reader_Stops_When_Cancelled() throws Exception {
+        ImportProgress progress = new ImportProgress();
+        ArrayList<Tyre> tyres = new ArrayList<>();
+        try {
+            CSVReader.Read(new ByteArrayInputStream(CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.getBytes(StandardCharsets.UTF_8)), ColumnSchema.Default(), ImportFilter.Default(), CSVReader.Mode.SEQUENTIAL, progress, tyre -> {
+                tyres.add(tyre);
+                progress.Cancel();
+            });
+            fail();
+        } catch (ImportException e) {
+            assertEquals(ImportException.Reason.CANCELLED, e.GetReason());
+        }
+        assertEquals(1, tyres.size());
+    }
+
+    @Test
+    public void Import_Exception_Reasons() {
+        ImportException cancelled = new ImportException(ImportException.Reason.CANCELLED, "Import cancelled");
+        assertSame(cancelled, ImportException.From(cancelled));
+        assertEquals(ImportException.Reason.READ_FAILED, ImportException.From(new IOException()).GetReason());
+        assertEquals(ImportException.Reason.INVALID_FILE, ImportException.From(new java.util.zip.ZipException()).GetReason());
+        assertEquals(ImportException.Reason.INVALID_FILE, ImportException.From(new NumberFormatException()).GetReason());
+    }
+}
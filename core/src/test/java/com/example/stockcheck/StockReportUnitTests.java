@@ -0,0 +1,39 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.model.CommentMarkup;
+import com.example.stockcheck.model.Tyre;
+import com.example.stockcheck.report.StockReport;
+import org.junit.Test;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public class StockReportUnitTests {
+
+    @Test
+    public void Report_Seen_Counts_Slash_Separated_Values() throws Exception {
+        assertEquals(6, StockReport.CountSeen("1/2/3"));
+        assertEquals(5, StockReport.CountSeen("2\\3"));
+        Tyre tyre = new Tyre(0, "1954515", "partCode", "description", "location", "4", "17/01/2023", false);
+        tyre.EditSeen("1/3");
+        assertTrue(StockReport.SeenMatchesStock(tyre));
+    }
+
+    @Test
+    public void Report_Lists_Only_Tyres_With_Stock_Or_Discrepancies() {
+        Tyre noStock = new Tyre(0, "1111111", "partCode", "description", "location", "0", "17/01/2023", false);
+        Tyre inStock = new Tyre(1, "2222222", "partCode", "description", "location", "2", "17/01/2023", false);
+        Tyre edited = new Tyre(2, "3333333", "partCode", "description", "location", "0", "17/01/2023", false);
+        edited.EditLocation("location 2");
+        assertFalse(StockReport.IsReported(noStock));
+        assertTrue(StockReport.IsReported(inStock));
+        assertTrue(StockReport.IsReported(edited));
+        String html = StockReport.Html(Arrays.asList(noStock, inStock, edited), CommentMarkup.Default(), LocalDate.of(2024, 3, 1));
+        assertTrue(html.contains("<h3>01/03/2024</h3>"));
+        assertFalse(html.contains("1111111"));
+        assertTrue(html.contains("2222222"));
+        assertTrue(html.contains("location" + CommentMarkup.Default().insertedStart + " 2"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.StringPool;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+public class StringPoolUnitTests {
+
+    @Test
+    public void Reader_Shares_Repeated_Field_Strings() throws Exception {
+        StringBuilder builder = new StringBuilder(CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.substring(0, CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.indexOf('\n') + 1));
+        for (int i = 0; i < 20000; i++) {
+            builder.append(200000 + i).append(",Code,Description ").append(i % 3).append(",Rack ").append(i % 5).append(",,,1,Tyres,,,,,,01/02/2023,\n");
+        }
+        byte[] csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        for (CSVReader.Mode mode : CSVReader.Mode.values()) {
+            ImportProgress progress = new ImportProgress();
+            ArrayList<Tyre> tyres = new ArrayList<>();
+            CSVReader.Read(ByteBuffer.wrap(csv), ColumnSchema.Default(), ImportFilter.Default(), mode, progress, tyres::add);
+            assertEquals(20000, tyres.size());
+            assertSame(tyres.get(0).GetLocation(true, null), tyres.get(19995).GetLocation(true, null));
+            assertSame(tyres.get(1).GetDescription(true, null), tyres.get(19999).GetDescription(true, null));
+            assertSame(tyres.get(0).GetLastSoldDate(true), tyres.get(12345).GetLastSoldDate(true));
+            StringPool pool = progress.GetStringPool();
+            assertEquals(1 + 3 + 5 + 1 + 1, pool.GetSize());
+            assertEquals(20000L * 5 - pool.GetSize(), pool.GetStringsReused());
+            assertTrue(pool.GetBytesSaved() > 0);
+        }
+    }
+
+    @Test
+    public void Reader_Shares_Cut_Stock_Strings() throws Exception {
+        StringBuilder builder = new StringBuilder(CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.substring(0, CSVTokenizerUnitTests.CSV_WITH_CATEGORIES.indexOf('\n') + 1));
+        for (int i = 0; i < 1000; i++) {
+            builder.append(200000 + i).append(",Code,Description,Rack,,,").append(i % 2 == 0 ? "2.00" : "2.50").append(",Tyres,,,,,,01/02/2023,\n");
+        }
+        byte[] csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+        for (CSVReader.Mode mode : CSVReader.Mode.values()) {
+            ArrayList<Tyre> tyres = new ArrayList<>();
+            CSVReader.Read(ByteBuffer.wrap(csv), ColumnSchema.Default(), ImportFilter.Default(), mode, new ImportProgress(), tyres::add);
+            assertEquals("2", tyres.get(0).GetStock());
+            assertEquals("2.50", tyres.get(999).GetStockText());
+            // Stock cut at the decimal point is shared whatever the decimals were
+            assertSame(tyres.get(0).GetStock(), tyres.get(999).GetStock());
+        }
+    }
+
+    @Test
+    public void Pool_Counts_Compact_Strings_At_One_Byte_Per_Char() {
+        StringPool pool = new StringPool();
+        pool.Get(new String("Rack"));
+        pool.Get(new String("Rack"));
+        assertEquals(40 + 4, pool.GetBytesSaved());
+        pool.Get(new String("Gr\u00f6\u00dfe"));
+        pool.Get(new String("Gr\u00f6\u00dfe"));
+        assertEquals(40 + 4 + 40 + 5, pool.GetBytesSaved());
+        pool.Get(new String("\u2013 R16"));
+        pool.Get(new String("\u2013 R16"));
+        assertEquals(40 + 4 + 40 + 5 + 40 + 2 * 5, pool.GetBytesSaved());
+        assertEquals(3, pool.GetSize());
+        assertEquals(3, pool.GetStringsReused());
+    }
+}
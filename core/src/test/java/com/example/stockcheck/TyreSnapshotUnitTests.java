@@ -0,0 +1,152 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.filemanagement.CSVReader;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.TyreSnapshot;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class TyreSnapshotUnitTests {
+
+    private static ArrayList<Tyre> CreateTyres() {
+        ArrayList<Tyre> tyres = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tyres.add(new Tyre(i, String.valueOf(2000000 + i), "Code " + (i % 10), "205/55 R16 Ünïcode " + (i % 7), "Rack " + (i % 3), String.valueOf(i % 5), "01/02/2023", false));
+        }
+        return tyres;
+    }
+
+    @Test
+    public void Snapshot_Round_Trips_Tyres() throws Exception {
+        File directory = Files.createTempDirectory("snapshots").toFile();
+        ArrayList<Tyre> tyres = CreateTyres();
+        TyreSnapshot.Writer writer = new TyreSnapshot.Writer(directory, "abc");
+        for (Tyre tyre : tyres) writer.Add(tyre);
+        writer.Commit();
+        writer.Abort();
+        ImportProgress progress = new ImportProgress();
+        ArrayList<Tyre> read = TyreSnapshot.Read(directory, "abc", progress);
+        assertEquals(tyres.size(), read.size());
+        for (int i = 0; i < tyres.size(); i++) {
+            assertEquals(i, read.get(i).GetId());
+            assertEquals(tyres.get(i).GetPart(true, null), read.get(i).GetPart(true, null));
+            assertEquals(tyres.get(i).GetSupplierPartCode(true, null), read.get(i).GetSupplierPartCode(true, null));
+            assertEquals(tyres.get(i).GetDescription(true, null), read.get(i).GetDescription(true, null));
+            assertEquals(tyres.get(i).GetLocation(true, null), read.get(i).GetLocation(true, null));
+            assertEquals(tyres.get(i).GetStock(), read.get(i).GetStock());
+            assertEquals(tyres.get(i).GetLastSoldDate(true), read.get(i).GetLastSoldDate(true));
+        }
+        // Repeated values are decoded once
+        assertSame(read.get(0).GetLocation(true, null), read.get(999).GetLocation(true, null));
+        assertEquals(new File(directory, "abc.snapshot").length(), progress.GetBytesRead() + 16);
+        assertEquals(1000, progress.GetRowsSeen());
+    }
+
+    @Test
+    public void Snapshot_Keeps_Decimal_Stock() throws Exception {
+        File directory = Files.createTempDirectory("snapshots").toFile();
+        TyreSnapshot.Writer writer = new TyreSnapshot.Writer(directory, "decimal");
+        writer.Add(new Tyre(0, "2000000", "", "", "", "2.5", "", false));
+        writer.Add(new Tyre(1, "2000001", "", "", "", "2.4", "", false));
+        writer.Commit();
+        ArrayList<Tyre> read = TyreSnapshot.Read(directory, "decimal", new ImportProgress());
+        assertEquals("2", read.get(0).GetStock());
+        assertEquals("2.5", read.get(0).GetStockText());
+        // Sorted on the imported number, as a fresh parse would be
+        assertTrue(new Tyre.SortByStock().compare(read.get(0), read.get(1)) > 0);
+    }
+
+    @Test
+    public void Snapshot_Is_Not_Used_Unless_Complete() throws Exception {
+        File directory = Files.createTempDirectory("snapshots").toFile();
+        TyreSnapshot.Writer aborted = new TyreSnapshot.Writer(directory, "aborted");
+        for (Tyre tyre : CreateTyres()) aborted.Add(tyre);
+        aborted.Abort();
+        assertNull(TyreSnapshot.Read(directory, "aborted", new ImportProgress()));
+        assertEquals(0, directory.listFiles().length);
+
+        TyreSnapshot.Writer writer = new TyreSnapshot.Writer(directory, "truncated");
+        for (Tyre tyre : CreateTyres()) writer.Add(tyre);
+        writer.Commit();
+        File file = new File(directory, "truncated.snapshot");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(file.length() - 1);
+        }
+        assertNull(TyreSnapshot.Read(directory, "truncated", new ImportProgress()));
+        assertTrue(!file.exists());
+    }
+
+    @Test
+    public void Snapshot_Keeps_Most_Recent() throws Exception {
+        File directory = Files.createTempDirectory("snapshots").toFile();
+        for (int i = 0; i < 5; i++) {
+            TyreSnapshot.Writer writer = new TyreSnapshot.Writer(directory, "file" + i);
+            writer.Add(CreateTyres().get(i));
+            writer.Commit();
+            new File(directory, "file" + i + ".snapshot").setLastModified(1000000L * (i + 1));
+        }
+        assertNull(TyreSnapshot.Read(directory, "file0", new ImportProgress()));
+        assertEquals(1, TyreSnapshot.Read(directory, "file4", new ImportProgress()).size());
+        assertEquals(3, directory.listFiles().length);
+    }
+
+    @Test
+    public void Fingerprint_Depends_On_Content_And_Settings() throws Exception {
+        byte[] data = "Part,Category\n2000000,Tyres\n".getBytes(StandardCharsets.UTF_8);
+        ColumnSchema schema = ColumnSchema.Default();
+        ImportFilter filter = ImportFilter.Default();
+        String mapped = TyreSnapshot.Fingerprint(ByteBuffer.wrap(data), schema, filter, new ImportProgress());
+        assertEquals(mapped, TyreSnapshot.Fingerprint(new ByteArrayInputStream(data), schema, filter, new ImportProgress()));
+        assertTrue(mapped.contains("-" + data.length + "-"));
+        data[data.length - 2] = 'S';
+        assertNotEquals(mapped, TyreSnapshot.Fingerprint(ByteBuffer.wrap(data), schema, filter, new ImportProgress()));
+        data[data.length - 2] = 's';
+        assertNotEquals(mapped, TyreSnapshot.Fingerprint(ByteBuffer.wrap(data), schema, new ImportFilter(new String[] { "Tyres" }, new String[0]), new ImportProgress()));
+    }
+
+    @Test
+    public void Fingerprint_Streamed_While_Parsing() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(compressed)) {
+            zipOutputStream.putNextEntry(new ZipEntry("stock.csv"));
+            zipOutputStream.write(("Part,Supplier Part Codes,Description,Location,On Stock,Last Sold Date,Category\n" +
+                    "2000000,,205/55 R16,Rack 1,3,17/01/2023,Tyres\n" +
+                    "2000001,,205/55 R16,Rack 1,2.5,17/01/2023,Tyres\n").getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] data = compressed.toByteArray();
+        ColumnSchema schema = ColumnSchema.Default();
+        ImportFilter filter = ImportFilter.Default();
+        File directory = Files.createTempDirectory("snapshots").toFile();
+        TyreSnapshot.FingerprintingInputStream fingerprintingStream = new TyreSnapshot.FingerprintingInputStream(new ByteArrayInputStream(data));
+        TyreSnapshot.Writer writer = new TyreSnapshot.Writer(directory);
+        CSVReader.Read(fingerprintingStream, schema, filter, CSVReader.Mode.SEQUENTIAL, new ImportProgress(), writer::Add);
+        String fingerprint = fingerprintingStream.Finish(schema, filter, new ImportProgress());
+        String sourceKey = TyreSnapshot.SourceKey("content://file", data.length, 1000, schema, filter);
+        writer.Commit(fingerprint, sourceKey);
+        // The whole file is fingerprinted, including the end of the zip the parser did not read
+        assertEquals(TyreSnapshot.Fingerprint(ByteBuffer.wrap(data), schema, filter, new ImportProgress()), fingerprint);
+        assertEquals(fingerprint, TyreSnapshot.FindFingerprint(directory, sourceKey));
+        assertEquals(2, TyreSnapshot.Read(directory, fingerprint, new ImportProgress()).size());
+        assertNull(TyreSnapshot.FindFingerprint(directory, TyreSnapshot.SourceKey("content://file", data.length, 2000, schema, filter)));
+        // A source key is forgotten once its snapshot is gone
+        new File(directory, fingerprint + ".snapshot").delete();
+        assertNull(TyreSnapshot.FindFingerprint(directory, sourceKey));
+    }
+}
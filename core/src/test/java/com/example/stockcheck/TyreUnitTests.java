@@ -0,0 +1,324 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.example.stockcheck.model.CommentMarkup;
+import com.example.stockcheck.model.Tyre;
+import com.example.stockcheck.model.TyreComment;
+import com.example.stockcheck.model.TyreMerge;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+public class TyreUnitTests {
+
+    @Test
+    public void Tyre_Part_Number_Parsed() {
+        Tyre tyre = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        assertEquals("1954515", tyre.GetPartNumber());
+    }
+
+    @Test
+    public void Tyre_Part_Number_Parsed_With_Extra() {
+        Tyre tyre = new Tyre(0, "1954515 test", "partCode", "description", "location", "5", "17/01/2023", false);
+        assertEquals("1954515", tyre.GetPartNumber());
+    }
+
+    @Test
+    public void Tyre_Part_Number_Parsed_Unparsable() {
+        Tyre tyre = new Tyre(0, "test", "partCode", "description", "location", "5", "17/01/2023", false);
+        assertEquals("0", tyre.GetPartNumber());
+    }
+
+    @Test
+    public void Tyre_Stock_Integer_Parsed() {
+        Tyre tyre = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        assertEquals("5", tyre.GetStock());
+    }
+
+    @Test
+    public void Tyre_Stock_Float_Parsed() {
+        Tyre tyre = new Tyre(0, "1954515", "partCode", "description", "location", "5.00", "17/01/2023", false);
+        assertEquals("5", tyre.GetStock());
+    }
+
+    @Test
+    public void Tyre_Stock_Parsed_Unparsable() {
+        Tyre tyre = new Tyre(0, "1954515", "partCode", "description", "location", "test", "17/01/2023", false);
+        assertEquals("test", tyre.GetStock());
+    }
+
+    @Test
+    public void Tyre_Part_Number_Sorts_Small_Diff() {
+        Tyre tyre1 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        Tyre tyre2 = new Tyre(0, "1954520", "partCode", "description", "location", "5", "17/01/2023", false);
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(tyre1);
+        tyreList.add(tyre2);
+        tyreList.sort(new Tyre.SortByPartNumber());
+        assertEquals(tyre1, tyreList.get(0));
+    }
+
+    @Test
+    public void Tyre_Part_Number_Sorts_Large_Diff() {
+        Tyre tyre1 = new Tyre(0, "2644515", "partCode", "description", "location", "5", "17/01/2023", false);
+        Tyre tyre2 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(tyre1);
+        tyreList.add(tyre2);
+        tyreList.sort(new Tyre.SortByPartNumber());
+        assertEquals(tyre2, tyreList.get(0));
+    }
+
+    @Test
+    public void Tyre_Last_Sold_Date_Sorts_Day_Diff() {
+        Tyre tyre1 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        Tyre tyre2 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "20/01/2023", false);
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(tyre1);
+        tyreList.add(tyre2);
+        tyreList.sort(new Tyre.SortByLastSoldDate());
+        assertEquals(tyre1, tyreList.get(0));
+    }
+
+    @Test
+    public void Tyre_Last_Sold_Date_Sorts_Month_Diff() {
+        Tyre tyre1 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/04/2023", false);
+        Tyre tyre2 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(tyre1);
+        tyreList.add(tyre2);
+        tyreList.sort(new Tyre.SortByLastSoldDate());
+        assertEquals(tyre2, tyreList.get(0));
+    }
+
+    @Test
+    public void Tyre_Last_Sold_Date_Sorts_Year_Diff() {
+        Tyre tyre1 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2025", false);
+        Tyre tyre2 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(tyre1);
+        tyreList.add(tyre2);
+        tyreList.sort(new Tyre.SortByLastSoldDate());
+        assertEquals(tyre2, tyreList.get(0));
+    }
+
+    @Test
+    public void Tyre_Stock_Sorts() {
+        Tyre tyre1 = new Tyre(0, "1954515", "partCode", "description", "location", "1", "17/01/2023", false);
+        Tyre tyre2 = new Tyre(0, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(tyre1);
+        tyreList.add(tyre2);
+        tyreList.sort(new Tyre.SortByStock());
+        assertEquals(tyre1, tyreList.get(0));
+    }
+
+    @Test
+    public void Merge_Updates_Stock_And_Keeps_Check_Data() {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(new Tyre(0, "1954515", "code", "description", "location", "5", "17/01/2023", false));
+        tyreList.add(new Tyre(1, "2054516", "code", "description", "location", "2", "01/01/2023", false));
+        tyreList.add(new Tyre(2, "2154517", "code", "description", "location", "1", "01/01/2023", false));
+        tyreList.get(0).EditSeen("4");
+        tyreList.get(0).EditComment("checked");
+        tyreList.get(0).isDone = true;
+        tyreList.get(1).EditLastSoldDate("02/02/2023");
+        ArrayList<Tyre> imported = new ArrayList<>();
+        imported.add(new Tyre(0, "2054516", "new code", "new description", "new location", "1.00", "03/03/2023", false));
+        imported.add(new Tyre(1, "3054518", "code", "description", "location", "7", "04/04/2023", false));
+        imported.add(new Tyre(2, "1954515", "code", "description", "location", "4", "17/01/2023", false));
+        TyreMerge.Result result = TyreMerge.Merge(tyreList, imported);
+        assertEquals(2, result.updated);
+        assertEquals(1, result.added);
+        assertEquals(1, result.missing);
+        assertEquals(4, tyreList.size());
+        Tyre first = tyreList.get(0);
+        assertEquals("4", first.GetStock());
+        assertEquals("4", first.GetSeen());
+        assertEquals("checked", first.GetComment(true));
+        assertTrue(first.isDone);
+        // Last sold date edited by hand is kept, other imported fields are not changed
+        Tyre second = tyreList.get(1);
+        assertEquals("1", second.GetStock());
+        assertEquals("02/02/2023", second.GetLastSoldDate(true));
+        assertEquals("code", second.GetSupplierPartCode(true, null));
+        assertEquals("1", tyreList.get(2).GetStock());
+        Tyre added = tyreList.get(3);
+        assertEquals(3, added.GetId());
+        assertEquals("3054518", added.GetPart(true, null));
+        assertFalse(added.IsAdded());
+    }
+
+    @Test
+    public void Merge_Matches_Repeated_Parts_In_Order() {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(new Tyre(0, "1954515", "code", "description", "rack 1", "1", "17/01/2023", false));
+        tyreList.add(new Tyre(1, "1954515", "code", "description", "rack 2", "2", "17/01/2023", false));
+        ArrayList<Tyre> imported = new ArrayList<>();
+        imported.add(new Tyre(0, "1954515", "code", "description", "rack 1", "3", "17/01/2023", false));
+        imported.add(new Tyre(1, "1954515", "code", "description", "rack 2", "2", "17/01/2023", false));
+        imported.add(new Tyre(2, "1954515", "code", "description", "rack 3", "6", "17/01/2023", false));
+        TyreMerge.Result result = TyreMerge.Merge(tyreList, imported);
+        assertEquals(1, result.updated);
+        assertEquals(1, result.unchanged);
+        assertEquals(1, result.added);
+        assertEquals(0, result.missing);
+        assertEquals("3", tyreList.get(0).GetStock());
+        assertEquals("2", tyreList.get(1).GetStock());
+        assertEquals("rack 3", tyreList.get(2).GetLocation(true, null));
+    }
+
+    @Test
+    public void Merge_Matches_Edited_Part_On_Imported_Part() {
+        ArrayList<Tyre> tyreList = new ArrayList<>();
+        tyreList.add(new Tyre(0, "1954515", "code", "description", "rack 1", "1", "17/01/2023", false));
+        tyreList.add(new Tyre(1, "2054516", "code", "description", "rack 2", "2", "17/01/2023", false));
+        tyreList.get(0).EditPart("1954515 r15");
+        tyreList.get(1).EditPart("1954515");
+        ArrayList<Tyre> imported = new ArrayList<>();
+        imported.add(new Tyre(0, "1954515", "code", "description", "rack 1", "3", "17/01/2023", false));
+        imported.add(new Tyre(1, "2054516", "code", "description", "rack 2", "4", "17/01/2023", false));
+        TyreMerge.Result result = TyreMerge.Merge(tyreList, imported);
+        assertEquals(2, result.updated);
+        assertEquals(0, result.added);
+        assertEquals(0, result.missing);
+        assertEquals(2, tyreList.size());
+        assertEquals("3", tyreList.get(0).GetStock());
+        assertEquals("1954515 r15", tyreList.get(0).GetPart(true, null));
+        // Editing a part to another tyre's part does not take over its match
+        assertEquals("4", tyreList.get(1).GetStock());
+        assertEquals("2054516", tyreList.get(1).GetImportedPart());
+    }
+
+    @Test
+    public void Tyre_Serialises_With_Edits() throws Exception {
+        Tyre tyre = new Tyre(7, "1954515", "partCode", "description", "location", "5", "17/01/2023", false);
+        tyre.EditDescription("descr");
+        tyre.EditLocation("location 2");
+        tyre.EditSeen("3");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tyre);
+        }
+        Tyre copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Tyre) in.readObject();
+        }
+        CommentMarkup markup = CommentMarkup.Default();
+        assertEquals(7, copy.GetId());
+        assertEquals("3", copy.GetSeen());
+        assertTrue(copy.IsEdited());
+        assertEquals(tyre.GetDescription(false, markup), copy.GetDescription(false, markup));
+        assertEquals("descr" + markup.deletedStart + "iption" + markup.deletedEnd, copy.GetDescription(false, markup));
+        assertEquals("location" + markup.insertedStart + " 2" + markup.insertedEnd, copy.GetLocation(false, markup));
+    }
+
+    @Test
+    public void Comment_Edits_Serialise_Round_Trip() {
+        CommentMarkup markup = new CommentMarkup("<i>", "</i>", "<d>", "</d>");
+        TyreComment comment = new TyreComment("abcdef");
+        comment.Edit("abef");
+        comment.Edit("abefxy");
+        comment.Edit("abefy");
+        String serialised = comment.GetSerialised();
+        assertEquals("5:7;abefyabcdefyUUDDUUI0:0;1:1;2:4;3:5;4:6;", serialised);
+        TyreComment copy = new TyreComment("");
+        copy.Deserialise(serialised);
+        assertEquals("abefy", copy.GetString(true, null));
+        assertEquals(comment.GetString(false, markup), copy.GetString(false, markup));
+        assertEquals(serialised, copy.GetSerialised());
+    }
+
+    @Test
+    public void Comment_Edit_Runs_Tagged_Once() {
+        CommentMarkup markup = new CommentMarkup("<i>", "</i>", "<d>", "</d>");
+        TyreComment comment = new TyreComment("abcdef");
+        comment.Edit("abef");
+        comment.Edit("abXef");
+        comment.Edit("abXYef");
+        assertEquals("ab<d>cd</d><i>XY</i>ef", comment.GetString(false, markup));
+        comment.Edit("abef");
+        assertEquals("ab<d>cd</d>ef", comment.GetString(false, markup));
+    }
+
+    @Test
+    public void Comment_Edit_Replacement_Delta() {
+        CommentMarkup markup = new CommentMarkup("<i>", "</i>", "<d>", "</d>");
+        TyreComment comment = new TyreComment("rack 3");
+        StringBuilder field = new StringBuilder("rack 3");
+        field.replace(0, 4, "shelf");
+        comment.Edit(field, 0, 4, 5);
+        assertEquals("shelf 3", comment.GetString(true, null));
+        assertEquals("<d>rack</d><i>shelf</i> 3", comment.GetString(false, markup));
+        comment.Edit("shelf 3b");
+        assertEquals("<d>rack</d><i>shelf</i> 3<i>b</i>", comment.GetString(false, markup));
+    }
+
+    @Test
+    public void Comment_Rendered_Until_Edited() {
+        int[] renders = {0};
+        TyreComment.Renderer<String> renderer = comment -> {
+            renders[0]++;
+            StringBuilder builder = new StringBuilder();
+            comment.VisitRuns((text, start, end, type) ->
+                    builder.append(type.name().charAt(0)).append(text, start, end).append('|'));
+            return builder.toString();
+        };
+        TyreComment comment = new TyreComment("abcd");
+        assertEquals("Uabcd|", comment.GetRendered(renderer));
+        comment.Edit("abXd");
+        assertEquals("Uab|Dc|IX|Ud|", comment.GetRendered(renderer));
+        assertEquals("Uab|Dc|IX|Ud|", comment.GetRendered(renderer));
+        assertEquals(2, renders[0]);
+    }
+
+    @Test
+    public void Comment_Encoding_Round_Trip() {
+        CommentMarkup markup = new CommentMarkup("<i>", "</i>", "<d>", "</d>");
+        TyreComment unedited = new TyreComment("rack 3");
+        TyreComment uneditedCopy = new TyreComment("");
+        uneditedCopy.Decode(unedited.GetEncoded());
+        assertEquals("rack 3", uneditedCopy.GetString(false, markup));
+
+        TyreComment comment = new TyreComment("abcdef");
+        comment.Edit("abef");
+        comment.Edit("abXYef");
+        byte[] encoded = comment.GetEncoded();
+        // Version, run count, four runs and eight characters
+        assertEquals(14, encoded.length);
+        TyreComment copy = new TyreComment("");
+        copy.Decode(encoded);
+        assertEquals("abXYef", copy.GetString(true, null));
+        assertEquals("ab<d>cd</d><i>XY</i>ef", copy.GetString(false, markup));
+        assertEquals(comment.GetSerialised(), copy.GetSerialised());
+    }
+
+    @Test
+    public void Comment_Edit_Same_Text_Replace_Unchanged() {
+        CommentMarkup markup = new CommentMarkup("<i>", "</i>", "<d>", "</d>");
+        TyreComment comment = new TyreComment("rack 3");
+        // A text field restoring its state replaces all its text with the same text
+        comment.Edit(new StringBuilder("rack 3"), 0, 6, 6);
+        assertEquals("rack 3", comment.GetString(false, markup));
+        comment.Edit(new StringBuilder("rack 3b"), 6, 0, 1);
+        comment.Edit(new StringBuilder("rack 3b"), 0, 7, 7);
+        assertEquals("rack 3<i>b</i>", comment.GetString(false, markup));
+    }
+
+    @Test
+    public void Comment_Edit_Composing_Word_Replace() {
+        CommentMarkup markup = new CommentMarkup("<i>", "</i>", "<d>", "</d>");
+        TyreComment comment = new TyreComment("front rack");
+        // The keyboard replaces the word being composed, "rack" with "racks", then autocorrects it to "rocks"
+        comment.Edit(new StringBuilder("front racks"), 6, 4, 5);
+        assertEquals("front rack<i>s</i>", comment.GetString(false, markup));
+        comment.Edit(new StringBuilder("front rocks"), 6, 5, 5);
+        assertEquals("front r<d>a</d><i>o</i>ck<i>s</i>", comment.GetString(false, markup));
+        assertEquals("front rocks", comment.GetString(true, null));
+    }
+}
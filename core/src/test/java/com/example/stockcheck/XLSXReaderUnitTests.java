@@ -0,0 +1,206 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import com.example.stockcheck.filemanagement.ColumnSchema;
+import com.example.stockcheck.filemanagement.DateStyles;
+import com.example.stockcheck.filemanagement.ImportFilter;
+import com.example.stockcheck.filemanagement.ImportProgress;
+import com.example.stockcheck.filemanagement.XLSXReader;
+import com.example.stockcheck.model.Tyre;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class XLSXReaderUnitTests {
+
+    private static final String SHARED_STRINGS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"5\" uniqueCount=\"5\">"
+            + "<si><t>Tyres</t></si>"
+            + "<si><r><rPr><b/></rPr><t xml:space=\"preserve\">205/55 </t></r><r><t>R16</t></r><rPh sb=\"0\" eb=\"1\"><t>x</t></rPh></si>"
+            + "<si><t>Bay &amp; 1</t></si>"
+            + "<si><t/></si>"
+            + "<si><t>Gr\u00f6\u00dfe &#x2013; &#233;t&#xE9; &bogus;</t></si>"
+            + "</sst>";
+
+    private static final String STYLES = "<styleSheet><numFmts count=\"0\"/>"
+            + "<cellStyleXfs count=\"1\"><xf numFmtId=\"14\"/></cellStyleXfs>"
+            + "<cellXfs count=\"2\"><xf numFmtId=\"0\"/><xf numFmtId=\"14\" applyNumberFormat=\"1\"/></cellXfs>"
+            + "</styleSheet>";
+
+    private static String Sheet(String sheetData) {
+        return "<worksheet><sheetPr/><sheetData>" + sheetData + "</sheetData><pageMargins/></worksheet>";
+    }
+
+    private static ByteBuffer CreateWorkbook(String sheetData) throws Exception {
+        return CreateZip(new String[][] {
+                { "xl/sharedStrings.xml", SHARED_STRINGS },
+                { "xl/styles.xml", STYLES },
+                { "xl/worksheets/sheet1.xml", Sheet(sheetData) }
+        });
+    }
+
+    private static ByteBuffer CreateZip(String[][] entries) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            for (String[] entry : entries) {
+                zipOutputStream.putNextEntry(new ZipEntry(entry[0]));
+                zipOutputStream.write(entry[1].getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        }
+        return ByteBuffer.wrap(outputStream.toByteArray());
+    }
+
+    private static ArrayList<Tyre> Read(String sheetData) throws Exception {
+        ArrayList<Tyre> tyres = new ArrayList<>();
+        XLSXReader.Read(CreateWorkbook(sheetData), ColumnSchema.Default(), ImportFilter.Default(), new ImportProgress(), tyres::add);
+        return tyres;
+    }
+
+    private static String InlineCell(String reference, String text) {
+        return "<c r=\"" + reference + "\" t=\"inlineStr\"><is><t>" + text + "</t></is></c>";
+    }
+
+    @Test
+    public void Reader_Reads_Shared_Strings_Dates_And_Reordered_Headers() throws Exception {
+        String header = "<row r=\"1\">" + InlineCell("A1", "Category") + InlineCell("B1", "Location") + InlineCell("C1", "Part")
+                + InlineCell("D1", "Description") + InlineCell("E1", "On Stock") + InlineCell("F1", "Last Sold Date")
+                + InlineCell("G1", "Supplier Part Codes") + "</row>";
+        String row = "<row r=\"2\"><c r=\"A2\" t=\"s\"><v>0</v></c><c r=\"B2\" t=\"s\"><v>2</v></c><c r=\"C2\"><v>1234</v></c>"
+                + "<c r=\"D2\" t=\"s\"><v>1</v></c><c r=\"E2\"><f>1+3</f><v>4</v></c><c r=\"F2\" s=\"1\"><v>45000</v></c><c r=\"G2\"/></row>";
+        ArrayList<Tyre> tyres = Read(header + row);
+        assertEquals(1, tyres.size());
+        Tyre tyre = tyres.get(0);
+        assertEquals("1234", tyre.GetPart(true, null));
+        assertEquals("205/55 R16", tyre.GetDescription(true, null));
+        assertEquals("Bay & 1", tyre.GetLocation(true, null));
+        assertEquals("4", tyre.GetStock());
+        assertEquals("03/15/2023", tyre.GetLastSoldDate(true));
+        assertEquals("", tyre.GetSupplierPartCode(true, null));
+    }
+
+    @Test
+    public void Reader_Uses_Fallback_Columns_Without_Header() throws Exception {
+        // Cells without a reference follow the previous cell, and rows that fail the filter are skipped
+        String rows = "<row><c><v>2001</v></c><c t=\"s\"><v>4</v></c><c><v>Tyre</v></c><c r=\"D1\"><v>Bay</v></c><c r=\"G1\"><v>7</v></c>"
+                + "<c t=\"s\"><v>0</v></c><c r=\"N1\" t=\"inlineStr\"><is><t>01/01/2024</t></is></c></row>"
+                + "<row><c r=\"A2\"><v>9001</v></c><c r=\"H2\" t=\"s\"><v>0</v></c></row>"
+                + "<row r=\"3\"/>";
+        ArrayList<Tyre> tyres = Read(rows);
+        assertEquals(1, tyres.size());
+        assertEquals("2001", tyres.get(0).GetPart(true, null));
+        assertEquals("Gr\u00f6\u00dfe \u2013 \u00e9t\u00e9 &bogus;", tyres.get(0).GetSupplierPartCode(true, null));
+        assertEquals("Bay", tyres.get(0).GetLocation(true, null));
+        assertEquals("7", tyres.get(0).GetStock());
+        assertEquals("01/01/2024", tyres.get(0).GetLastSoldDate(true));
+    }
+
+    @Test
+    public void Reader_Maps_Columns_Beyond_Z() throws Exception {
+        String[] columns = { "Z", "AA", "AB", "AZ", "BA", "ZZ", "AAA" };
+        String[] headers = { "Part", "Category", "Description", "Location", "On Stock", "Last Sold Date", "Supplier Part Codes" };
+        String[] values = { "<v>1500</v>", "<v>0</v>", "<v>1</v>", "<v>2</v>", "<v>12</v>", "<v>45000</v>", "<v>3</v>" };
+        StringBuilder header = new StringBuilder("<row r=\"1\">");
+        StringBuilder row = new StringBuilder("<row r=\"2\">");
+        for (int i = 0; i < columns.length; i++) {
+            header.append(InlineCell(columns[i] + "1", headers[i]));
+            String type = i == 1 || i == 2 || i == 3 || i == 6 ? " t=\"s\"" : "";
+            String style = i == 5 ? " s=\"1\"" : "";
+            row.append("<c r=\"").append(columns[i]).append("2\"").append(type).append(style).append(">").append(values[i]).append("</c>");
+        }
+        ArrayList<Tyre> tyres = Read(header + "</row>" + row + "</row>");
+        assertEquals(1, tyres.size());
+        assertEquals("1500", tyres.get(0).GetPart(true, null));
+        assertEquals("205/55 R16", tyres.get(0).GetDescription(true, null));
+        assertEquals("Bay & 1", tyres.get(0).GetLocation(true, null));
+        assertEquals("12", tyres.get(0).GetStock());
+        assertEquals("03/15/2023", tyres.get(0).GetLastSoldDate(true));
+    }
+
+    @Test
+    public void Reader_Finds_Sheets_Through_Workbook_Relationships() throws Exception {
+        String relationshipType = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/";
+        ByteBuffer workbook = CreateZip(new String[][] {
+                { "xl/worksheets/sheet1.xml", Sheet("<row><c><v>3001</v></c><c r=\"H1\" t=\"s\"><v>0</v></c></row>") },
+                { "_rels/.rels", "<Relationships><Relationship Id=\"rId1\" Type=\"" + relationshipType + "officeDocument\" Target=\"book/main.xml\"/></Relationships>" },
+                { "book/main.xml", "<workbook><sheets><sheet name=\"Stock\" sheetId=\"2\" r:id=\"rId7\"/><sheet name=\"Old\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>" },
+                { "book/_rels/main.xml.rels", "<Relationships>"
+                        + "<Relationship Id=\"rId1\" Type=\"" + relationshipType + "worksheet\" Target=\"/xl/worksheets/sheet1.xml\"/>"
+                        + "<Relationship Id=\"rId7\" Type=\"" + relationshipType + "worksheet\" Target=\"../data/stock.xml\"/>"
+                        + "<Relationship Id=\"rId8\" Type=\"" + relationshipType + "sharedStrings\" Target=\"strings.xml\"/>"
+                        + "</Relationships>" },
+                { "book/strings.xml", SHARED_STRINGS },
+                { "data/stock.xml", Sheet("<row><c><v>2002</v></c><c r=\"H1\" t=\"s\"><v>0</v></c></row>") }
+        });
+        ArrayList<Tyre> tyres = new ArrayList<>();
+        XLSXReader.Read(workbook, ColumnSchema.Default(), ImportFilter.Default(), new ImportProgress(), tyres::add);
+        // Sheets are read in workbook order, not part name order
+        assertEquals(2, tyres.size());
+        assertEquals("2002", tyres.get(0).GetPart(true, null));
+        assertEquals("3001", tyres.get(1).GetPart(true, null));
+    }
+
+    @Test
+    public void Reader_Merges_Sheets_With_Ids_In_Sheet_Order() throws Exception {
+        String relationshipType = "http://schemas.openxmlformats.org/officeDocument/2006/relationships/";
+        int sheetCount = 4;
+        int rowsPerSheet = 500;
+        // Rows use strings from the end of a large table, so sheets wait for the strings still being parsed
+        StringBuilder strings = new StringBuilder("<sst><si><t>Tyres</t></si>");
+        for (int i = 1; i <= sheetCount * rowsPerSheet; i++) strings.append("<si><t>Bay ").append(i).append("</t></si>");
+        strings.append("</sst>");
+        StringBuilder sheets = new StringBuilder();
+        StringBuilder relationships = new StringBuilder("<Relationships>");
+        String[][] entries = new String[sheetCount + 3][];
+        for (int sheet = 0; sheet < sheetCount; sheet++) {
+            sheets.append("<sheet name=\"Branch ").append(sheet).append("\" sheetId=\"").append(sheet + 1).append("\" r:id=\"rId").append(sheet + 1).append("\"/>");
+            relationships.append("<Relationship Id=\"rId").append(sheet + 1).append("\" Type=\"").append(relationshipType).append("worksheet\" Target=\"worksheets/sheet").append(sheet + 1).append(".xml\"/>");
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < rowsPerSheet; i++) {
+                int location = sheetCount * rowsPerSheet - (sheet * rowsPerSheet + i);
+                rows.append("<row><c><v>").append(100000 + 1000 * sheet + i).append("</v></c><c r=\"D1\" t=\"s\"><v>").append(location)
+                        .append("</v></c><c r=\"H1\" t=\"s\"><v>0</v></c></row>");
+            }
+            entries[sheet] = new String[] { "xl/worksheets/sheet" + (sheet + 1) + ".xml", Sheet(rows.toString()) };
+        }
+        relationships.append("<Relationship Id=\"rId9\" Type=\"").append(relationshipType).append("sharedStrings\" Target=\"sharedStrings.xml\"/></Relationships>");
+        entries[sheetCount] = new String[] { "xl/workbook.xml", "<workbook><sheets>" + sheets + "</sheets></workbook>" };
+        entries[sheetCount + 1] = new String[] { "xl/_rels/workbook.xml.rels", relationships.toString() };
+        entries[sheetCount + 2] = new String[] { "xl/sharedStrings.xml", strings.toString() };
+        ArrayList<Tyre> tyres = new ArrayList<>();
+        XLSXReader.Read(CreateZip(entries), ColumnSchema.Default(), ImportFilter.Default(), new ImportProgress(), tyres::add);
+        assertEquals(sheetCount * rowsPerSheet, tyres.size());
+        for (int id = 0; id < tyres.size(); id++) {
+            int sheet = id / rowsPerSheet;
+            assertEquals(id, tyres.get(id).GetId());
+            assertEquals(String.valueOf(100000 + 1000 * sheet + id % rowsPerSheet), tyres.get(id).GetPart(true, null));
+            assertEquals("Bay " + (sheetCount * rowsPerSheet - id), tyres.get(id).GetLocation(true, null));
+        }
+    }
+
+    @Test
+    public void Date_Styles_Include_Built_In_And_Custom_Date_Formats() throws Exception {
+        String styles = "<styleSheet><numFmts count=\"3\">"
+                + "<numFmt numFmtId=\"164\" formatCode=\"dd/mm/yyyy;@\"/>"
+                + "<numFmt numFmtId=\"165\" formatCode=\"[h]:mm:ss\"/>"
+                + "<numFmt numFmtId=\"166\" formatCode=\"&quot;Day&quot; 0\"/>"
+                + "</numFmts><cellXfs count=\"7\">"
+                + "<xf numFmtId=\"0\"/><xf numFmtId=\"14\"/><xf numFmtId=\"22\"/><xf numFmtId=\"23\"/>"
+                + "<xf numFmtId=\"164\"/><xf numFmtId=\"165\"/><xf numFmtId=\"166\"/>"
+                + "</cellXfs></styleSheet>";
+        DateStyles dateStyles = DateStyles.Read(new ByteArrayInputStream(styles.getBytes(StandardCharsets.UTF_8)));
+        boolean[] expected = { false, true, true, false, true, false, false };
+        for (int style = 0; style < expected.length; style++) assertEquals(expected[style], dateStyles.IsDate(style));
+        assertFalse(dateStyles.IsDate(-1));
+        assertEquals("03/15/2023", dateStyles.Format("45000.75"));
+        assertSame(dateStyles.Format("45000"), dateStyles.Format("45000"));
+        assertEquals("N/A", dateStyles.Format("N/A"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.stockcheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import com.example.stockcheck.filemanagement.ZipDirectory;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ZipDirectoryUnitTests {
+
+    private static ByteBuffer CreateZip() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zipOutputStream.write("<worksheet>deflated</worksheet>".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.closeEntry();
+            byte[] stored = "stored data".getBytes(StandardCharsets.UTF_8);
+            ZipEntry storedEntry = new ZipEntry("xl/sharedStrings.xml");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            storedEntry.setCrc(crc.getValue());
+            zipOutputStream.putNextEntry(storedEntry);
+            zipOutputStream.write(stored);
+            zipOutputStream.closeEntry();
+            zipOutputStream.setComment("comment");
+        }
+        return ByteBuffer.wrap(outputStream.toByteArray());
+    }
+
+    private static String ReadAll(InputStream inputStream) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[16];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) outputStream.write(buffer, 0, read);
+        return outputStream.toString("UTF-8");
+    }
+
+    @Test
+    public void Zip_Directory_Lists_Entries() throws Exception {
+        ZipDirectory zip = new ZipDirectory(CreateZip());
+        assertEquals(2, zip.GetEntries().size());
+        assertNotNull(zip.Get("xl/sharedStrings.xml"));
+        assertNotNull(zip.Find("sheet1.xml"));
+        assertNull(zip.Find("styles.xml"));
+    }
+
+    @Test
+    public void Zip_Directory_Reads_Deflated_Entry() throws Exception {
+        ZipDirectory zip = new ZipDirectory(CreateZip());
+        try (InputStream inputStream = zip.Open(zip.Find("sheet1.xml"))) {
+            assertEquals("<worksheet>deflated</worksheet>", ReadAll(inputStream));
+        }
+    }
+
+    @Test
+    public void Zip_Directory_Reads_Stored_Entry() throws Exception {
+        ZipDirectory zip = new ZipDirectory(CreateZip());
+        try (InputStream inputStream = zip.Open(zip.Get("xl/sharedStrings.xml"))) {
+            assertEquals("stored data", ReadAll(inputStream));
+        }
+    }
+}
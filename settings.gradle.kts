@@ -21,3 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Stock Check"
 include(":app")
+include(":core")
+include(":cli")
+include(":benchmarks")